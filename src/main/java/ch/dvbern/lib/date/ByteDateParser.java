@@ -0,0 +1,294 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Parst Daten direkt aus einem {@link ByteBuffer} (z.B. einem {@link java.nio.MappedByteBuffer} einer Importdatei) in
+ * Tage seit dem 1.1.1970 (siehe {@link EpochDays}), ohne den Text zuerst in einen {@code String} zu dekodieren.
+ * <p>
+ * Der Buffer wird nur mit absoluten Zugriffen gelesen, Position und Limit bleiben unveraendert. Mehrere Threads
+ * koennen darum gleichzeitig verschiedene Bereiche desselben Buffers parsen.
+ * <p>
+ * Nur die Normalform wird direkt aus den Bytes gerechnet ({@code d.M.yyyy} bzw. {@code yyyy-MM-dd} mit ASCII-Ziffern).
+ * Alles andere wird als UTF-8 dekodiert und wie bisher geparst ({@link SwissDateFormat} bzw.
+ * {@link LocalDate#parse(CharSequence)}), die Resultate sind also dieselben wie mit
+ * {@link DateHelper#getDateFromString(String)} bzw.
+ * {@link ch.dvbern.lib.date.converters.LocalDateXMLConverter#unmarshal(String)}.
+ */
+public final class ByteDateParser {
+
+	/**
+	 * Wert fuer ein leeres Feld in {@link #scanColumns(ByteBuffer, int, int, byte, int, int[], Format[])}.
+	 */
+	public static final int EMPTY = Integer.MIN_VALUE;
+
+	private static final int INITIAL_ZEILEN = 1024;
+
+	/**
+	 * Die unterstuetzten Datumsformate.
+	 */
+	public enum Format {
+		/**
+		 * {@code dd.MM.yyyy} wie {@link DateHelper#getDateFromString(String)}
+		 */
+		DD_MM_YYYY,
+		/**
+		 * {@code yyyy-MM-dd} wie {@link LocalDate#parse(CharSequence)}
+		 */
+		ISO
+	}
+
+	/**
+	 * Wird nicht instanziert.
+	 */
+	private ByteDateParser() {
+	}
+
+	/**
+	 * @param offset absoluter Index im Buffer
+	 * @param length Anzahl Bytes des Feldes
+	 * @return Tage seit dem 1.1.1970
+	 * @throws ParseException wenn das Feld kein gueltiges Datum ist. Der Offset bezieht sich auf den Buffer.
+	 */
+	public static int parse(ByteBuffer buffer, int offset, int length, Format format) throws ParseException {
+
+		if (format == null) {
+			throw new IllegalArgumentException("format is null");
+		}
+		return format == Format.ISO ? parseIso(buffer, offset, length) : parseSwiss(buffer, offset, length);
+	}
+
+	/**
+	 * Parst ein Datum {@code dd.MM.yyyy} mit derselben Validierung wie {@link DateHelper#getDateFromString(String)}.
+	 *
+	 * @param offset absoluter Index im Buffer
+	 * @param length Anzahl Bytes des Feldes
+	 * @return Tage seit dem 1.1.1970
+	 * @throws ParseException wenn das Feld kein gueltiges Datum ist. Der Offset bezieht sich auf den Buffer.
+	 */
+	public static int parseSwiss(ByteBuffer buffer, int offset, int length) throws ParseException {
+
+		checkRange(buffer, offset, length);
+		int end = offset + length;
+		int pos = offset;
+		int day = 0;
+		int ziffern = 0;
+		while (pos < end && ziffern < 3 && isAsciiDigit(buffer.get(pos))) {
+			day = day * 10 + buffer.get(pos++) - '0';
+			ziffern++;
+		}
+		if (ziffern > 0 && ziffern <= 2 && pos < end && buffer.get(pos++) == '.') {
+			int month = 0;
+			ziffern = 0;
+			while (pos < end && ziffern < 3 && isAsciiDigit(buffer.get(pos))) {
+				month = month * 10 + buffer.get(pos++) - '0';
+				ziffern++;
+			}
+			if (ziffern > 0 && ziffern <= 2 && pos < end && buffer.get(pos++) == '.' && end - pos == 4) {
+				int year = parseZiffern(buffer, pos, 4);
+				// vor 1583 rechnet SimpleDateFormat julianisch
+				if (year >= 1583 && isGueltig(year, month, day)) {
+					return EpochDays.of(year, month, day);
+				}
+			}
+		}
+		String text = decode(buffer, offset, length);
+		try {
+			return SwissDateFormat.parseEpochDay(text, 0, text.length());
+		} catch (ParseException e) {
+			ParseException pe = new ParseException(e.getMessage(), offset + e.getErrorOffset());
+			pe.initCause(e);
+			throw pe;
+		}
+	}
+
+	/**
+	 * Parst ein Datum {@code yyyy-MM-dd} mit derselben Validierung wie {@link LocalDate#parse(CharSequence)}.
+	 *
+	 * @param offset absoluter Index im Buffer
+	 * @param length Anzahl Bytes des Feldes
+	 * @return Tage seit dem 1.1.1970
+	 * @throws ParseException wenn das Feld kein gueltiges Datum ist. Der Offset bezieht sich auf den Buffer, die
+	 * Ursache ist die {@link DateTimeParseException}.
+	 */
+	public static int parseIso(ByteBuffer buffer, int offset, int length) throws ParseException {
+
+		checkRange(buffer, offset, length);
+		if (length == 10 && buffer.get(offset + 4) == '-' && buffer.get(offset + 7) == '-') {
+			int year = parseZiffern(buffer, offset, 4);
+			int month = parseZiffern(buffer, offset + 5, 2);
+			int day = parseZiffern(buffer, offset + 8, 2);
+			if (year >= 0 && isGueltig(year, month, day)) {
+				return EpochDays.of(year, month, day);
+			}
+		}
+		String text = decode(buffer, offset, length);
+		try {
+			return (int) LocalDate.parse(text).toEpochDay();
+		} catch (DateTimeParseException e) {
+			ParseException pe = new ParseException(e.getMessage(), offset + e.getErrorIndex());
+			pe.initCause(e);
+			throw pe;
+		}
+	}
+
+	/**
+	 * Liest alle Zeilen im Bereich {@code [offset, offset + length)} und parst die gewuenschten Spalten.
+	 * Zeilen enden mit {@code \n} oder {@code \r\n}, eine leere letzte Zeile wird ignoriert. Spalten ohne Text
+	 * (auch fehlende Spalten am Zeilenende) ergeben {@link #EMPTY}. Es gibt kein Quoting.
+	 *
+	 * @param separator Trennzeichen der Spalten, z.B. {@code ';'}
+	 * @param skipLines Anzahl Zeilen am Anfang, die nicht geparst werden (z.B. 1 fuer eine Titelzeile)
+	 * @param columns die Indexe (0-basiert) der zu parsenden Spalten
+	 * @param formats das Format pro Eintrag in {@code columns}
+	 * @return pro Eintrag in {@code columns} ein Array mit einem Wert pro Zeile
+	 * @throws ParseException wenn ein Feld kein gueltiges Datum ist. Der Offset bezieht sich auf den Buffer.
+	 */
+	public static int[][] scanColumns(ByteBuffer buffer, int offset, int length, byte separator, int skipLines,
+		int[] columns, Format[] formats) throws ParseException {
+
+		checkRange(buffer, offset, length);
+		if (columns == null || formats == null || columns.length == 0 || columns.length != formats.length) {
+			throw new IllegalArgumentException("columns and formats must have the same, non-zero length");
+		}
+		if (skipLines < 0) {
+			throw new IllegalArgumentException("skipLines is negative: " + skipLines);
+		}
+		// Format pro Spalte der Datei, damit jede Zeile nur einmal gelesen werden muss
+		int maxColumn = -1;
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i] < 0 || formats[i] == null) {
+				throw new IllegalArgumentException("invalid column " + i);
+			}
+			maxColumn = Math.max(maxColumn, columns[i]);
+		}
+		int[] zielNachSpalte = new int[maxColumn + 1];
+		Arrays.fill(zielNachSpalte, -1);
+		for (int i = 0; i < columns.length; i++) {
+			if (zielNachSpalte[columns[i]] != -1) {
+				throw new IllegalArgumentException("duplicate column " + columns[i]);
+			}
+			zielNachSpalte[columns[i]] = i;
+		}
+
+		int[][] result = new int[columns.length][INITIAL_ZEILEN];
+		int zeilen = 0;
+		int end = offset + length;
+		int pos = offset;
+		int zeile = 0;
+		while (pos < end) {
+			int zeilenEnde = pos;
+			while (zeilenEnde < end && buffer.get(zeilenEnde) != '\n') {
+				zeilenEnde++;
+			}
+			int naechste = zeilenEnde + 1;
+			if (zeilenEnde > pos && buffer.get(zeilenEnde - 1) == '\r') {
+				zeilenEnde--;
+			}
+			if (zeile++ >= skipLines) {
+				if (zeilen == result[0].length) {
+					for (int i = 0; i < result.length; i++) {
+						result[i] = Arrays.copyOf(result[i], zeilen * 2);
+					}
+				}
+				for (int[] werte : result) {
+					werte[zeilen] = EMPTY;
+				}
+				int feld = pos;
+				for (int spalte = 0; spalte <= maxColumn && feld <= zeilenEnde; spalte++) {
+					int feldEnde = feld;
+					while (feldEnde < zeilenEnde && buffer.get(feldEnde) != separator) {
+						feldEnde++;
+					}
+					int ziel = zielNachSpalte[spalte];
+					if (ziel >= 0 && feldEnde > feld) {
+						try {
+							result[ziel][zeilen] = parse(buffer, feld, feldEnde - feld, formats[ziel]);
+						} catch (ParseException e) {
+							ParseException pe = new ParseException("line " + zeile + ", column " + spalte + ": "
+								+ e.getMessage(), e.getErrorOffset());
+							pe.initCause(e);
+							throw pe;
+						}
+					}
+					feld = feldEnde + 1;
+				}
+				zeilen++;
+			}
+			pos = naechste;
+		}
+		for (int i = 0; i < result.length; i++) {
+			result[i] = Arrays.copyOf(result[i], zeilen);
+		}
+		return result;
+	}
+
+	private static void checkRange(ByteBuffer buffer, int offset, int length) {
+
+		if (buffer == null) {
+			throw new IllegalArgumentException("buffer is null");
+		}
+		if (offset < 0 || length < 0 || offset > buffer.limit() - length) {
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", limit "
+				+ buffer.limit());
+		}
+	}
+
+	private static boolean isAsciiDigit(byte b) {
+
+		return b >= '0' && b <= '9';
+	}
+
+	/**
+	 * @return der Wert der ASCII-Ziffern oder -1, wenn nicht alle Bytes Ziffern sind
+	 */
+	private static int parseZiffern(ByteBuffer buffer, int offset, int anzahl) {
+
+		int wert = 0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			byte b = buffer.get(i);
+			if (!isAsciiDigit(b)) {
+				return -1;
+			}
+			wert = wert * 10 + b - '0';
+		}
+		return wert;
+	}
+
+	private static boolean isGueltig(int year, int month, int day) {
+
+		return month >= 1 && month <= 12 && day >= 1 && day <= EpochDays.lengthOfMonth(year, month);
+	}
+
+	/**
+	 * Langsamer Weg fuer alles ausser der Normalform.
+	 */
+	private static String decode(ByteBuffer buffer, int offset, int length) {
+
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = buffer.get(offset + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
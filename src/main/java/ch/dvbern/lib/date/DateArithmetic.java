@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.util.Calendar;
+
+import static ch.dvbern.lib.date.EpochDays.MILLIS_PER_DAY;
+
+/**
+ * Datumsrechnung auf Epoch-Millis ohne {@link Calendar}, mit denselben Resultaten wie der nicht-lenient
+ * {@link java.util.GregorianCalendar}, den {@link DateHelper} bisher verwendet hat.
+ * <p>
+ * Die Rechnung deckt nur die Faelle ab, in welchen das Resultat sicher gleich ist: Tage vom 1.1.1583 bis 31.12.9999
+ * (vorher rechnet {@code GregorianCalendar} julianisch) und Wanduhrzeiten ohne Zeitzonen-Umstellung innerhalb eines
+ * Tages. In allen anderen Faellen antworten die Methoden {@link #FALLBACK} und der Aufrufer rechnet wie bisher mit
+ * dem Calendar.
+ */
+// interne Rechnung hinter DateHelper, kein eigenstaendiger *Helper fuer Aufrufer
+@SuppressWarnings("PMD.ClassNamingConventions")
+final class DateArithmetic {
+
+	/**
+	 * Resultat, wenn die Rechnung nicht ohne Calendar gemacht werden kann.
+	 */
+	static final long FALLBACK = Long.MIN_VALUE;
+
+	static final int MIN_EPOCH_DAY = EpochDays.of(1583, 1, 1);
+	static final int MAX_EPOCH_DAY = EpochDays.of(9999, 12, 31);
+
+	/**
+	 * Wird nicht instanziert.
+	 */
+	private DateArithmetic() {
+	}
+
+	/**
+	 * @return die lokale Wanduhrzeit als Millis seit dem 1.1.1970 00:00 (ohne Zeitzone)
+	 */
+	static long toWall(long millis, ZoneOffsetCache zone) {
+
+		return zone.toWall(millis);
+	}
+
+	static int epochDay(long wall) {
+
+		return (int) Math.floorDiv(wall, MILLIS_PER_DAY);
+	}
+
+	static int millisOfDay(long wall) {
+
+		return (int) Math.floorMod(wall, MILLIS_PER_DAY);
+	}
+
+	static boolean isInRange(int epochDay) {
+
+		return epochDay >= MIN_EPOCH_DAY && epochDay <= MAX_EPOCH_DAY;
+	}
+
+	/**
+	 * Wanduhrzeit in Millis. Nur eindeutig, wenn innerhalb eines Tages um die Wanduhrzeit keine
+	 * Zeitzonen-Umstellung liegt, sonst {@link #FALLBACK}.
+	 */
+	static long fromWall(int epochDay, int millisOfDay, ZoneOffsetCache zone) {
+
+		if (!isInRange(epochDay)) {
+			return FALLBACK;
+		}
+		long wall = epochDay * MILLIS_PER_DAY + millisOfDay;
+		int offset = zone.getOffset(wall - MILLIS_PER_DAY);
+		if (zone.getOffset(wall + MILLIS_PER_DAY) != offset || zone.getOffset(wall - offset) != offset) {
+			return FALLBACK;
+		}
+		return wall - offset;
+	}
+
+	/**
+	 * Wie {@code Calendar.add(Calendar.DATE, dayCount)}: die Wanduhrzeit bleibt erhalten. Aendert der
+	 * Zeitzonen-Offset, wird um die Differenz korrigiert, ausser die Korrektur wuerde den Tag aendern.
+	 */
+	static long addDays(long millis, int dayCount, ZoneOffsetCache zone) {
+
+		int offset = zone.getOffset(millis);
+		long wall = millis + offset;
+		int tag = epochDay(wall);
+		long zielTag = (long) tag + dayCount;
+		if (!isInRange(tag) || zielTag < MIN_EPOCH_DAY || zielTag > MAX_EPOCH_DAY) {
+			return FALLBACK;
+		}
+		long result = zielTag * MILLIS_PER_DAY + millisOfDay(wall) - offset;
+		int differenz = offset - zone.getOffset(result);
+		if (differenz != 0) {
+			long korrigiert = result + differenz;
+			if (epochDay(toWall(korrigiert, zone)) == zielTag) {
+				result = korrigiert;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Wie {@code Calendar.add(Calendar.MONTH, monthCount)}: ist der Tag im Zielmonat zu gross, wird der letzte Tag
+	 * des Monats genommen. Die Wanduhrzeit bleibt erhalten.
+	 */
+	static long addMonths(long millis, int monthCount, ZoneOffsetCache zone) {
+
+		long wall = toWall(millis, zone);
+		int tag = epochDay(wall);
+		if (!isInRange(tag)) {
+			return FALLBACK;
+		}
+		long monate = EpochDays.getYear(tag) * 12L + EpochDays.getMonth(tag) - 1 + monthCount;
+		long year = Math.floorDiv(monate, 12);
+		if (year < 1583 || year > 9999) {
+			return FALLBACK;
+		}
+		return atDayOfMonth((int) year, (int) (monate - year * 12) + 1, EpochDays.getDayOfMonth(tag),
+			millisOfDay(wall), zone);
+	}
+
+	/**
+	 * Wie {@code Calendar.add(Calendar.YEAR, yearCount)}: aus dem 29. Februar wird in einem Nicht-Schaltjahr der
+	 * 28. Februar. Die Wanduhrzeit bleibt erhalten.
+	 */
+	static long addYears(long millis, int yearCount, ZoneOffsetCache zone) {
+
+		long wall = toWall(millis, zone);
+		int tag = epochDay(wall);
+		if (!isInRange(tag)) {
+			return FALLBACK;
+		}
+		long year = (long) EpochDays.getYear(tag) + yearCount;
+		if (year < 1583 || year > 9999) {
+			return FALLBACK;
+		}
+		return atDayOfMonth((int) year, EpochDays.getMonth(tag), EpochDays.getDayOfMonth(tag), millisOfDay(wall),
+			zone);
+	}
+
+	private static long atDayOfMonth(int year, int month, int dayOfMonth, int millisOfDay, ZoneOffsetCache zone) {
+
+		int tag = Math.min(dayOfMonth, EpochDays.lengthOfMonth(year, month));
+		return fromWall(EpochDays.of(year, month, tag), millisOfDay, zone);
+	}
+
+	/**
+	 * @param field ein Feld von {@link Calendar}
+	 * @return der Wert des Feldes wie {@code Calendar.get(field)} oder {@code -1}, wenn das Feld nicht unterstuetzt
+	 * ist oder der Tag ausserhalb des Bereiches liegt
+	 */
+	static int get(int field, long millis, ZoneOffsetCache zone) {
+
+		long wall = toWall(millis, zone);
+		int tag = epochDay(wall);
+		int millisOfDay = millisOfDay(wall);
+		switch (field) {
+		case Calendar.HOUR_OF_DAY:
+			return millisOfDay / 3600000;
+		case Calendar.MINUTE:
+			return millisOfDay / 60000 % 60;
+		case Calendar.SECOND:
+			return millisOfDay / 1000 % 60;
+		case Calendar.MILLISECOND:
+			return millisOfDay % 1000;
+		default:
+			break;
+		}
+		if (!isInRange(tag)) {
+			return -1;
+		}
+		switch (field) {
+		case Calendar.YEAR:
+			return EpochDays.getYear(tag);
+		case Calendar.MONTH:
+			return EpochDays.getMonth(tag) - 1;
+		case Calendar.DAY_OF_MONTH:
+			return EpochDays.getDayOfMonth(tag);
+		case Calendar.DAY_OF_YEAR:
+			return tag - EpochDays.of(EpochDays.getYear(tag), 1, 1) + 1;
+		case Calendar.DAY_OF_WEEK:
+			// ISO 1 = Montag ... 7 = Sonntag, Calendar 1 = Sonntag ... 7 = Samstag
+			return EpochDays.getDayOfWeek(tag) % 7 + 1;
+		default:
+			return -1;
+		}
+	}
+}
@@ -55,7 +55,8 @@ public class DateConvertUtils {
 		if (date instanceof java.sql.Date) {
 			return ((java.sql.Date) date).toLocalDate();
 		} else {
-			return Instant.ofEpochMilli(date.getTime()).atZone(zone).toLocalDate();
+			long wall = ZoneOffsetCache.of(zone).toWall(date.getTime());
+			return LocalDate.ofEpochDay(Math.floorDiv(wall, EpochDays.MILLIS_PER_DAY));
 		}
 	}
 
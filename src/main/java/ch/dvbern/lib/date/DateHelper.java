@@ -21,15 +21,17 @@ package ch.dvbern.lib.date;
 
 import java.sql.Timestamp;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
-import java.util.GregorianCalendar;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
 
 /**
  * @author muse
@@ -38,6 +40,23 @@ public final class DateHelper {
 
 	private static final Locale LOCALE_DE_CH = new Locale("de", "CH");
 
+	/**
+	 * Ab dieser Anzahl Werte werden Bulk-Methoden parallel berechnet.
+	 */
+	private static final int BULK_SCHWELLE = 1 << 13;
+
+	/**
+	 * Zeitquelle fuer {@link #currentDate()}, {@link #currentTimestamp()} und {@link #currentDateMinusMonaten(int)}.
+	 */
+	private static volatile Clock clock = Clock.systemUTC();
+
+	private static volatile boolean heuteCacheAktiv = true;
+
+	/**
+	 * Mitternacht von heute, gueltig bis zur naechsten Mitternacht.
+	 */
+	private static volatile Heute heute;
+
 	/**
 	 * Wird nicht instanziert.
 	 */
@@ -55,6 +74,10 @@ public final class DateHelper {
 	 */
 	public static Date addDays(Date date, int dayCount) {
 
+		long result = DateArithmetic.addDays(date.getTime(), dayCount, ZoneOffsetCache.ofDefault());
+		if (result != DateArithmetic.FALLBACK) {
+			return new Date(result);
+		}
 		Calendar calendar = getCalendar(date);
 		calendar.add(Calendar.DATE, dayCount);
 		return calendar.getTime();
@@ -70,6 +93,10 @@ public final class DateHelper {
 	 */
 	public static Date addMonths(Date date, int anzahl) {
 
+		long result = DateArithmetic.addMonths(date.getTime(), anzahl, ZoneOffsetCache.ofDefault());
+		if (result != DateArithmetic.FALLBACK) {
+			return new Date(result);
+		}
 		Calendar calendar = getCalendar(date);
 		calendar.add(Calendar.MONTH, anzahl);
 		return calendar.getTime();
@@ -111,6 +138,10 @@ public final class DateHelper {
 	 */
 	public static Date addYears(Date date, int anzahl) {
 
+		long result = DateArithmetic.addYears(date.getTime(), anzahl, ZoneOffsetCache.ofDefault());
+		if (result != DateArithmetic.FALLBACK) {
+			return new Date(result);
+		}
 		Calendar calendar = getCalendar(date);
 		calendar.add(Calendar.YEAR, anzahl);
 		return calendar.getTime();
@@ -127,8 +158,7 @@ public final class DateHelper {
 	 */
 	public static int dayOfWeek(Date date) {
 
-		Calendar calendar = getCalendar(date);
-		return calendar.get(Calendar.DAY_OF_WEEK);
+		return get(Calendar.DAY_OF_WEEK, date);
 	}
 
 	/**
@@ -141,6 +171,14 @@ public final class DateHelper {
 	 */
 	public static Date getDate(Date date, Date time) {
 
+		ZoneOffsetCache zone = ZoneOffsetCache.ofDefault();
+		int tag = DateArithmetic.epochDay(DateArithmetic.toWall(date.getTime(), zone));
+		int millisOfDay = DateArithmetic.millisOfDay(DateArithmetic.toWall(time.getTime(), zone));
+		long result = DateArithmetic.fromWall(tag, millisOfDay, zone);
+		if (result != DateArithmetic.FALLBACK) {
+			return new Date(result);
+		}
+
 		Calendar timeCalender = getCalendar(time);
 
 		Calendar calendar = getCalendar(date);
@@ -160,9 +198,7 @@ public final class DateHelper {
 	 */
 	public static Date getDateFromString(String aDateString) throws ParseException {
 
-		SimpleDateFormat formatter = new SimpleDateFormat("dd.MM.yyyy");
-		formatter.setLenient(false);
-		return formatter.parse(aDateString);
+		return SwissDateFormat.parse(aDateString);
 	}
 
 	/**
@@ -173,8 +209,7 @@ public final class DateHelper {
 	 */
 	public static int getDay(Date date) {
 
-		Calendar calendar = getCalendar(date);
-		return calendar.get(Calendar.DATE);
+		return get(Calendar.DATE, date);
 	}
 
 	/**
@@ -185,6 +220,10 @@ public final class DateHelper {
 	 */
 	public static int getWeekOfYear(Date date) {
 
+		int kalenderWoche = getKalenderWocheOhneCalendar(date);
+		if (kalenderWoche != -1) {
+			return KalenderWoche.getWoche(kalenderWoche);
+		}
 		Calendar calendar = getCalendar(date);
 		return calendar.get(Calendar.WEEK_OF_YEAR);
 	}
@@ -198,6 +237,10 @@ public final class DateHelper {
 	 */
 	public static int getYearOfWeek(Date date) {
 
+		int kalenderWoche = getKalenderWocheOhneCalendar(date);
+		if (kalenderWoche != -1) {
+			return KalenderWoche.getJahr(kalenderWoche);
+		}
 		int year = getYear(date);
 		int week = getWeekOfYear(date);
 		int month = getMonth(date);
@@ -217,6 +260,44 @@ public final class DateHelper {
 		}
 	}
 
+	/**
+	 * Antwortet Jahr und Kalenderwoche des Datums {@code date} in einem Wert.
+	 * Beispiel: 1.1.2005 liegt in der Kalenderwoche 53 des Jahres 2004, es wird 200453 zurückgegeben
+	 *
+	 * @return Kalenderwoche als {@code yyyyww}, siehe {@link KalenderWoche}
+	 */
+	public static int getKalenderWoche(Date date) {
+
+		int kalenderWoche = getKalenderWocheOhneCalendar(date);
+		if (kalenderWoche != -1) {
+			return kalenderWoche;
+		}
+		return getYearOfWeek(date) * 100 + getWeekOfYear(date);
+	}
+
+	/**
+	 * Antwortet Jahr und Kalenderwoche des Tages {@code day} in einem Wert.
+	 *
+	 * @return Kalenderwoche als {@code yyyyww}, siehe {@link KalenderWoche}
+	 */
+	public static int getKalenderWoche(Day day) {
+
+		return KalenderWoche.of(day.getEpochDay());
+	}
+
+	/**
+	 * @return die Kalenderwoche als {@code yyyyww} oder -1 ausserhalb der Jahre 1584 bis 9998 (um die
+	 * Kalenderreform rechnet der Calendar die Wochen anders)
+	 */
+	private static int getKalenderWocheOhneCalendar(Date date) {
+
+		int tag = ZoneOffsetCache.ofDefault().toEpochDay(date.getTime());
+		if (tag < DateArithmetic.MIN_EPOCH_DAY + 366 || tag > DateArithmetic.MAX_EPOCH_DAY - 366) {
+			return -1;
+		}
+		return KalenderWoche.of(tag);
+	}
+
 	/**
 	 * Antwortet ein Integer von 1-31 welcher die anzahl Tage des Monats
 	 * entspricht. Das Jahr muss wegen dem Schaltjahr bekannt sein.
@@ -228,6 +309,9 @@ public final class DateHelper {
 	 */
 	public static int getDaysInMonth(int month, int year) {
 
+		if (month >= 1 && month <= 12 && year >= 1583 && year <= 9999) {
+			return EpochDays.lengthOfMonth(year, month);
+		}
 		Calendar calendar = getCalendar();
 		calendar.set(Calendar.YEAR, year);
 		calendar.set(Calendar.MONTH, month - 1);
@@ -243,8 +327,7 @@ public final class DateHelper {
 	 */
 	public static int getHour(Date date) {
 
-		Calendar calendar = getCalendar(date);
-		return calendar.get(Calendar.HOUR_OF_DAY);
+		return get(Calendar.HOUR_OF_DAY, date);
 	}
 
 	/**
@@ -255,8 +338,7 @@ public final class DateHelper {
 	 */
 	public static int getMinute(Date date) {
 
-		Calendar calendar = getCalendar(date);
-		return calendar.get(Calendar.MINUTE);
+		return get(Calendar.MINUTE, date);
 	}
 
 	/**
@@ -267,8 +349,7 @@ public final class DateHelper {
 	 */
 	public static int getMonth(Date date) {
 
-		Calendar calendar = getCalendar(date);
-		return calendar.get(Calendar.MONTH) + 1;
+		return get(Calendar.MONTH, date);
 	}
 
 	/**
@@ -279,8 +360,7 @@ public final class DateHelper {
 	 */
 	public static int getSecond(Date date) {
 
-		Calendar calendar = getCalendar(date);
-		return calendar.get(Calendar.SECOND);
+		return get(Calendar.SECOND, date);
 	}
 
 	/**
@@ -290,8 +370,7 @@ public final class DateHelper {
 	 */
 	public static int getMillisecond(Date date) {
 
-		Calendar calendar = getCalendar(date);
-		return calendar.get(Calendar.MILLISECOND);
+		return get(Calendar.MILLISECOND, date);
 	}
 
 	/**
@@ -301,8 +380,7 @@ public final class DateHelper {
 	 */
 	public static int getYear(Date date) {
 
-		Calendar calendar = getCalendar(date);
-		return calendar.get(Calendar.YEAR);
+		return get(Calendar.YEAR, date);
 	}
 
 	/**
@@ -437,6 +515,10 @@ public final class DateHelper {
 	 */
 	public static Date newDate(int day, int month, int year) {
 
+		long result = newDateMillis(0, 0, 0, day, month, year);
+		if (result != DateArithmetic.FALLBACK) {
+			return new Date(result);
+		}
 		Calendar calendar = getCalendar();
 		if (year == 0) {
 			calendar.set(1, month - 1, day);
@@ -467,7 +549,79 @@ public final class DateHelper {
 	 */
 	public static Date currentDate() {
 
-		return newDateFromDate(new Date());
+		long jetzt = clock.millis();
+		ZoneOffsetCache zone = ZoneOffsetCache.ofDefault();
+		Heute cache = heute;
+		if (cache != null && cache.zone == zone && jetzt >= cache.mitternacht && jetzt < cache.naechsteMitternacht) {
+			return new Date(cache.mitternacht);
+		}
+		int tag = zone.toEpochDay(jetzt);
+		long mitternacht = DateArithmetic.fromWall(tag, 0, zone);
+		long naechsteMitternacht = DateArithmetic.fromWall(tag + 1, 0, zone);
+		if (mitternacht == DateArithmetic.FALLBACK || naechsteMitternacht == DateArithmetic.FALLBACK) {
+			return newDateFromDate(new Date(jetzt));
+		}
+		if (heuteCacheAktiv) {
+			heute = new Heute(zone, mitternacht, naechsteMitternacht);
+		}
+		return new Date(mitternacht);
+	}
+
+	/**
+	 * Setzt die Zeitquelle fuer {@link #currentDate()}, {@link #currentTimestamp()} und
+	 * {@link #currentDateMinusMonaten(int)}, z.B. {@link Clock#fixed} oder {@link Clock#offset} in Tests.
+	 * Verwendet wird nur der Zeitpunkt der Clock, der Tag wird wie ueberall in der Default-Zeitzone bestimmt.
+	 */
+	public static void setClock(Clock clock) {
+
+		if (clock == null) {
+			throw new IllegalArgumentException("clock is null");
+		}
+		DateHelper.clock = clock;
+	}
+
+	/**
+	 * @return die aktuelle Zeitquelle
+	 */
+	public static Clock getClock() {
+
+		return clock;
+	}
+
+	/**
+	 * Setzt die Zeitquelle wieder auf die Systemuhr.
+	 */
+	public static void resetClock() {
+
+		setClock(Clock.systemUTC());
+	}
+
+	/**
+	 * Schaltet den Cache fuer {@link #currentDate()} ein (Standard) oder aus. Der Cache haelt Mitternacht von heute
+	 * und wird erst neu berechnet, wenn die Zeitquelle einen anderen Tag liefert oder die Default-Zeitzone aendert.
+	 */
+	public static void setCurrentDateCache(boolean aktiv) {
+
+		heuteCacheAktiv = aktiv;
+		if (!aktiv) {
+			heute = null;
+		}
+	}
+
+	/**
+	 * Heute fuer {@link #currentDate()}.
+	 */
+	private static final class Heute {
+
+		private final ZoneOffsetCache zone;
+		private final long mitternacht;
+		private final long naechsteMitternacht;
+
+		private Heute(ZoneOffsetCache zone, long mitternacht, long naechsteMitternacht) {
+			this.zone = zone;
+			this.mitternacht = mitternacht;
+			this.naechsteMitternacht = naechsteMitternacht;
+		}
 	}
 
 	/**
@@ -482,6 +636,10 @@ public final class DateHelper {
 	 */
 	public static Date newDate(int second, int minute, int hour, int day, int month, int year) {
 
+		long result = newDateMillis(second, minute, hour, day, month, year);
+		if (result != DateArithmetic.FALLBACK) {
+			return new Date(result);
+		}
 		Calendar calendar = getCalendar();
 		calendar.set(year, month - 1, day, hour, minute, second);
 		return calendar.getTime();
@@ -578,6 +736,11 @@ public final class DateHelper {
 	 */
 	public static Date getFirstDayOfWeek(Date date) {
 
+		// Montag, gem. LOCALE_DE_CH der erste Tag der Woche
+		long result = withDay(date, tag -> tag - EpochDays.getDayOfWeek(tag) + 1);
+		if (result != DateArithmetic.FALLBACK) {
+			return new Date(result);
+		}
 		Calendar calendar = getCalendar(date);
 		calendar.set(Calendar.DAY_OF_WEEK, Calendar.MONDAY);
 		return calendar.getTime();
@@ -591,6 +754,10 @@ public final class DateHelper {
 	 */
 	public static Date getLastDayOfWeek(Date date) {
 
+		long result = withDay(date, tag -> tag - EpochDays.getDayOfWeek(tag) + 7);
+		if (result != DateArithmetic.FALLBACK) {
+			return new Date(result);
+		}
 		Calendar calendar = getCalendar(date);
 		calendar.set(Calendar.DAY_OF_WEEK, Calendar.SUNDAY);
 		return calendar.getTime();
@@ -604,6 +771,10 @@ public final class DateHelper {
 	 */
 	public static Date getFirstDayOfMonth(Date date) {
 
+		long result = withDay(date, tag -> tag - EpochDays.getDayOfMonth(tag) + 1);
+		if (result != DateArithmetic.FALLBACK) {
+			return new Date(result);
+		}
 		Calendar calendar = getCalendar(date);
 		int firstDate = calendar.getActualMinimum(Calendar.DATE);
 		calendar.set(Calendar.DATE, firstDate);
@@ -618,6 +789,11 @@ public final class DateHelper {
 	 */
 	public static Date getLastDayOfMonth(Date date) {
 
+		long result = withDay(date, tag -> tag - EpochDays.getDayOfMonth(tag)
+			+ EpochDays.lengthOfMonth(EpochDays.getYear(tag), EpochDays.getMonth(tag)));
+		if (result != DateArithmetic.FALLBACK) {
+			return new Date(result);
+		}
 		Calendar calendar = getCalendar(date);
 		int lastDate = calendar.getActualMaximum(Calendar.DATE);
 		calendar.set(Calendar.DATE, lastDate);
@@ -630,7 +806,7 @@ public final class DateHelper {
 	public static String getFormattedString(Date date) {
 
 		if (date != null) {
-			return (new SimpleDateFormat("dd.MM.yyyy")).format(date);
+			return SwissDateFormat.format(date);
 		} else {
 			return "";
 		}
@@ -638,6 +814,8 @@ public final class DateHelper {
 	}
 
 	/**
+	 * Die Zeit wird nicht beruecksichtigt, massgebend ist der Kalendertag in der Default-Zeitzone.
+	 *
 	 * @param inklusiveDatumVon angabe, ob das vonDatum auch mitgezählt werden soll
 	 * @return Anzahl Tage zwischen von und bis
 	 */
@@ -646,15 +824,66 @@ public final class DateHelper {
 		if (von == null || bis == null) {
 			return 0;
 		}
+		ZoneOffsetCache zone = ZoneOffsetCache.ofDefault();
+		return getAnzahlTage(zone.toEpochDay(von.getTime()), zone.toEpochDay(bis.getTime()), inklusiveDatumVon);
+	}
+
+	/**
+	 * @param inklusiveDatumVon angabe, ob das vonDatum auch mitgezählt werden soll
+	 * @return Anzahl Tage zwischen von und bis
+	 */
+	public static int getAnzahlTage(Day von, Day bis, boolean inklusiveDatumVon) {
+
+		if (von == null || bis == null) {
+			return 0;
+		}
+		return getAnzahlTage(von.getEpochDay(), bis.getEpochDay(), inklusiveDatumVon);
+	}
 
-		double tage = (double) (newDateFromDate(bis).getTime() - newDateFromDate(von).getTime()) / 86400000;
-		long anzahlTage = Math.round(tage); // Anzahl Millisecons pro Tag
+	/**
+	 * @param inklusiveDatumVon angabe, ob das vonDatum auch mitgezählt werden soll
+	 * @return Anzahl Tage zwischen von und bis
+	 */
+	public static int getAnzahlTage(LocalDate von, LocalDate bis, boolean inklusiveDatumVon) {
 
-		if (inklusiveDatumVon) {
-			anzahlTage++;
+		if (von == null || bis == null) {
+			return 0;
 		}
+		return (int) (bis.toEpochDay() - von.toEpochDay() + (inklusiveDatumVon ? 1 : 0));
+	}
+
+	/**
+	 * @param von Tage seit dem 1.1.1970 (siehe {@link EpochDays})
+	 * @param bis Tage seit dem 1.1.1970
+	 * @param inklusiveDatumVon angabe, ob das vonDatum auch mitgezählt werden soll
+	 * @return Anzahl Tage zwischen von und bis
+	 */
+	public static int getAnzahlTage(int von, int bis, boolean inklusiveDatumVon) {
 
-		return (int) anzahlTage;
+		return bis - von + (inklusiveDatumVon ? 1 : 0);
+	}
+
+	/**
+	 * Berechnet {@link #getAnzahlTage(int, int, boolean)} fuer jeden Index der Arrays.
+	 *
+	 * @param von Tage seit dem 1.1.1970 (siehe {@link EpochDays})
+	 * @param bis Tage seit dem 1.1.1970, gleich lang wie {@code von}
+	 * @param inklusiveDatumVon angabe, ob das vonDatum auch mitgezählt werden soll
+	 * @param anzahlTage Resultat, mindestens so lang wie {@code von}
+	 */
+	public static void getAnzahlTage(int[] von, int[] bis, boolean inklusiveDatumVon, int[] anzahlTage) {
+
+		if (von == null || bis == null || anzahlTage == null) {
+			throw new IllegalArgumentException("arrays must not be null");
+		}
+		if (bis.length != von.length || anzahlTage.length < von.length) {
+			throw new IllegalArgumentException("array length mismatch: von " + von.length + ", bis " + bis.length
+				+ ", anzahlTage " + anzahlTage.length);
+		}
+		int inklusive = inklusiveDatumVon ? 1 : 0;
+		for (int i = 0; i < von.length; i++) {
+			anzahlTage[i] = bis[i] - von[i] + inklusive;
+		}
 	}
 
 	/**
@@ -677,23 +906,61 @@ public final class DateHelper {
 	 */
 	public static boolean isSchalttagBetween(Date von, Date bis) {
 
+		return countSchalttage(von, bis) > 0;
+	}
+
+	/**
+	 * Die Zeit wird nicht beruecksichtigt, beide Tage zaehlen mit.
+	 *
+	 * @return Anzahl 29. Februar zwischen den beiden Daten, 0 wenn ein Datum {@code null} ist oder {@code bis} vor
+	 * {@code von} liegt
+	 */
+	public static int countSchalttage(Date von, Date bis) {
+
 		if (von == null || bis == null) {
-			return false;
+			return 0;
 		}
+		ZoneOffsetCache zone = ZoneOffsetCache.ofDefault();
+		int vonTag = zone.toEpochDay(von.getTime());
+		int bisTag = zone.toEpochDay(bis.getTime());
+		if (DateArithmetic.isInRange(vonTag) && DateArithmetic.isInRange(bisTag)) {
+			return EpochDays.countLeapDays(vonTag, bisTag);
+		}
+		// julianischer Kalender vor 1583
 		if (isDateLess(bis, von)) {
-			return false;
+			return 0;
 		}
-
+		int anzahl = 0;
 		Date datum = von;
-
 		while (isDateLessOrEqual(datum, bis)) {
 			if (getMonth(datum) == 2 && getDay(datum) == 29) {
-				return true;
+				anzahl++;
 			}
 			datum = addDays(datum, 1);
 		}
+		return anzahl;
+	}
 
-		return false;
+	/**
+	 * @return flag, ob zwischen den beiden Tagen ein Schalttag vorhanden ist
+	 */
+	public static boolean isSchalttagBetween(Day von, Day bis) {
+
+		return countSchalttage(von, bis) > 0;
+	}
+
+	/**
+	 * Beide Tage zaehlen mit.
+	 *
+	 * @return Anzahl 29. Februar zwischen den beiden Tagen, 0 wenn ein Tag {@code null} ist oder {@code bis} vor
+	 * {@code von} liegt
+	 */
+	public static int countSchalttage(Day von, Day bis) {
+
+		if (von == null || bis == null) {
+			return 0;
+		}
+		return EpochDays.countLeapDays(von.getEpochDay(), bis.getEpochDay());
 	}
 
 	/**
@@ -701,6 +968,16 @@ public final class DateHelper {
 	 */
 	public static Date newDateForExactTime(Date aDate, int hour, int minute, int second, int millisecond) {
 
+		if (hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59
+			&& millisecond >= 0 && millisecond <= 999) {
+			ZoneOffsetCache zone = ZoneOffsetCache.ofDefault();
+			int tag = DateArithmetic.epochDay(DateArithmetic.toWall(aDate.getTime(), zone));
+			long result = DateArithmetic.fromWall(tag,
+				((hour * 60 + minute) * 60 + second) * 1000 + millisecond, zone);
+			if (result != DateArithmetic.FALLBACK) {
+				return new Date(result);
+			}
+		}
 		Calendar cal = getCalendar(aDate);
 		cal.set(Calendar.HOUR_OF_DAY, hour);
 		cal.set(Calendar.MINUTE, minute);
@@ -710,6 +987,36 @@ public final class DateHelper {
 		return cal.getTime();
 	}
 
+	/**
+	 * Millis fuer {@link #newDate(int, int, int, int, int, int)} ohne Calendar, oder
+	 * {@link DateArithmetic#FALLBACK} bei ungueltigen Werten (der Calendar wirft dann die Exception).
+	 */
+	private static long newDateMillis(int second, int minute, int hour, int day, int month, int year) {
+
+		if (month < 1 || month > 12 || year < 1583 || year > 9999 || day < 1
+			|| day > EpochDays.lengthOfMonth(year, month)
+			|| hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+			return DateArithmetic.FALLBACK;
+		}
+		return DateArithmetic.fromWall(EpochDays.of(year, month, day), ((hour * 60 + minute) * 60 + second) * 1000,
+			ZoneOffsetCache.ofDefault());
+	}
+
+	/**
+	 * Verschiebt {@code date} auf einen anderen Tag mit derselben Wanduhrzeit, wie {@code Calendar.set()} mit
+	 * einem Tages-Feld.
+	 */
+	private static long withDay(Date date, IntUnaryOperator tagFunktion) {
+
+		ZoneOffsetCache zone = ZoneOffsetCache.ofDefault();
+		long wall = DateArithmetic.toWall(date.getTime(), zone);
+		int tag = DateArithmetic.epochDay(wall);
+		if (!DateArithmetic.isInRange(tag)) {
+			return DateArithmetic.FALLBACK;
+		}
+		return DateArithmetic.fromWall(tagFunktion.applyAsInt(tag), DateArithmetic.millisOfDay(wall), zone);
+	}
+
 	/**
 	 * @return Ein Calendar mit Local CH_DE, Datum und Zeit sind undefiniert.
 	 */
@@ -778,7 +1085,7 @@ public final class DateHelper {
 	 */
 	public static Timestamp currentTimestamp() {
 
-		return new Timestamp(System.currentTimeMillis());
+		return new Timestamp(clock.millis());
 
 	}
 
@@ -789,9 +1096,7 @@ public final class DateHelper {
 	 */
 	public static Date currentDateMinusMonaten(int anzahleMonaten) {
 
-		GregorianCalendar myCalendar1 = new GregorianCalendar();
-		myCalendar1.add(Calendar.MONTH, (-anzahleMonaten));
-		return new Date(myCalendar1.getTime().getTime());
+		return addMonths(new Date(clock.millis()), -anzahleMonaten);
 	}
 
 	/**
@@ -837,6 +1142,11 @@ public final class DateHelper {
 	 */
 	public static int get(int field, Date date) {
 
+		int wert = DateArithmetic.get(field, date.getTime(), ZoneOffsetCache.ofDefault());
+		if (wert >= 0) {
+			// Calendar.MONTH geht von 0-11
+			return field == Calendar.MONTH ? wert + 1 : wert;
+		}
 		Calendar cal = getCalendar(date);
 		int retVal = cal.get(field);
 		if (Calendar.MONTH == field) {
@@ -866,6 +1176,14 @@ public final class DateHelper {
 	 * @return das Alter
 	 */
 	public static int getAlterAm(Date geburtsdatum, Date stichdatum) {
+
+		ZoneOffsetCache zone = ZoneOffsetCache.ofDefault();
+		int geburtsTag = zone.toEpochDay(geburtsdatum.getTime());
+		int stichTag = zone.toEpochDay(stichdatum.getTime());
+		if (DateArithmetic.isInRange(geburtsTag) && DateArithmetic.isInRange(stichTag)) {
+			return getAlterAm(geburtsTag, stichTag);
+		}
+
 		// Tageszeit nicht beachten
 		Date geburtsdatumClean = stripTime(geburtsdatum);
 		Date stichdatumClean = stripTime(stichdatum);
@@ -897,6 +1215,65 @@ public final class DateHelper {
 		return age;
 	}
 
+	/**
+	 * Berechnet das Alter am übergebenen Stichtag.
+	 *
+	 * @param geburtsdatum Geburtsdatum
+	 * @param stichtag Tag, an welchem das Alter berechnet werden soll
+	 * @return das Alter
+	 */
+	public static int getAlterAm(Day geburtsdatum, Day stichtag) {
+
+		return getAlterAm(geburtsdatum.getEpochDay(), stichtag.getEpochDay());
+	}
+
+	/**
+	 * Berechnet das Alter am Stichtag. Wer am 29. Februar geboren ist, wird in einem Nicht-Schaltjahr am 1. Maerz
+	 * ein Jahr aelter.
+	 *
+	 * @param geburtsTag Geburtsdatum in Tagen seit dem 1.1.1970 (siehe {@link EpochDays})
+	 * @param stichTag Stichtag in Tagen seit dem 1.1.1970
+	 * @return das Alter, negativ wenn der Stichtag vor dem Geburtsdatum liegt
+	 */
+	public static int getAlterAm(int geburtsTag, int stichTag) {
+
+		return getAlterAmYyyymmdd(EpochDays.toYyyymmdd(geburtsTag), EpochDays.toYyyymmdd(stichTag));
+	}
+
+	/**
+	 * Wie {@link #getAlterAm(int, int)} mit Daten als Zahl {@code yyyymmdd}, z.B. {@code 20170314}.
+	 * Die Daten werden nicht validiert.
+	 *
+	 * @return das Alter, negativ wenn der Stichtag vor dem Geburtsdatum liegt
+	 */
+	public static int getAlterAmYyyymmdd(int geburtsdatum, int stichdatum) {
+
+		// Monat und Tag sind die letzten vier Ziffern: die Jahresdifferenz ist um 1 kleiner, wenn der Geburtstag
+		// im Jahr des Stichtages noch nicht erreicht ist
+		return Math.floorDiv(stichdatum - geburtsdatum, 10000);
+	}
+
+	/**
+	 * Berechnet {@link #getAlterAm(int, int)} fuer alle Geburtsdaten. Grosse Arrays werden parallel berechnet.
+	 *
+	 * @param geburtsTage Geburtsdaten in Tagen seit dem 1.1.1970 (siehe {@link EpochDays})
+	 * @param stichTag Stichtag in Tagen seit dem 1.1.1970
+	 * @param alter Resultat, mindestens so lang wie {@code geburtsTage}
+	 */
+	public static void getAlterAm(int[] geburtsTage, int stichTag, int[] alter) {
+
+		if (geburtsTage == null || alter == null) {
+			throw new IllegalArgumentException("arrays must not be null");
+		}
+		if (alter.length < geburtsTage.length) {
+			throw new IllegalArgumentException("alter is shorter than geburtsTage: " + alter.length);
+		}
+		int stichdatum = EpochDays.toYyyymmdd(stichTag);
+		int n = geburtsTage.length;
+		(n > BULK_SCHWELLE ? IntStream.range(0, n).parallel() : IntStream.range(0, n))
+			.forEach(i -> alter[i] = getAlterAmYyyymmdd(EpochDays.toYyyymmdd(geburtsTage[i]), stichdatum));
+	}
+
 	/**
 	 * @return Letzte Tag des Folgequartals berechnet von Parameter date
 	 */
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Unveraenderlicher Kalendertag, gespeichert als ein {@code int}: die Tage seit dem 1.1.1970 (siehe {@link EpochDays},
+ * proleptisch gregorianisch wie {@link LocalDate}).
+ * <p>
+ * Im Gegensatz zu {@link Date} ohne Zeit und ohne Zeitzone und darum ohne defensive Kopien teilbar. Die Zeitzone
+ * spielt nur bei der Umwandlung von und nach {@link Date} eine Rolle, massgebend ist dort wie ueberall in
+ * {@link DateHelper} die Default-Zeitzone.
+ */
+public final class Day implements Comparable<Day>, Serializable {
+
+	private static final long serialVersionUID = -3024619208817328713L;
+
+	private final int epochDay;
+
+	private Day(int epochDay) {
+		this.epochDay = epochDay;
+	}
+
+	/**
+	 * @param epochDay Tage seit dem 1.1.1970
+	 */
+	public static Day ofEpochDay(int epochDay) {
+
+		return new Day(epochDay);
+	}
+
+	/**
+	 * @param month Monat (1-12)
+	 * @param dayOfMonth Tag im Monat (1-31)
+	 */
+	public static Day of(int year, int month, int dayOfMonth) {
+
+		if (month < 1 || month > 12) {
+			throw new IllegalArgumentException("invalid month: " + month);
+		}
+		if (dayOfMonth < 1 || dayOfMonth > EpochDays.lengthOfMonth(year, month)) {
+			throw new IllegalArgumentException("invalid day of month: " + dayOfMonth);
+		}
+		return new Day(EpochDays.of(year, month, dayOfMonth));
+	}
+
+	/**
+	 * Die Zeit wird ignoriert. Fuer ein {@link java.sql.Date} gilt {@link java.sql.Date#toLocalDate()}, sonst der Tag
+	 * in der Default-Zeitzone.
+	 */
+	public static Day from(Date date) {
+
+		if (date == null) {
+			throw new IllegalArgumentException("date is null");
+		}
+		if (date instanceof java.sql.Date) {
+			return from(((java.sql.Date) date).toLocalDate());
+		}
+		return new Day(EpochDays.fromDate(date));
+	}
+
+	public static Day from(LocalDate date) {
+
+		if (date == null) {
+			throw new IllegalArgumentException("date is null");
+		}
+		return new Day(Math.toIntExact(date.toEpochDay()));
+	}
+
+	/**
+	 * @return Tage seit dem 1.1.1970
+	 */
+	public int getEpochDay() {
+		return epochDay;
+	}
+
+	public int getYear() {
+		return EpochDays.getYear(epochDay);
+	}
+
+	/**
+	 * @return Monat (1-12)
+	 */
+	public int getMonth() {
+		return EpochDays.getMonth(epochDay);
+	}
+
+	/**
+	 * @return Tag im Monat (1-31)
+	 */
+	public int getDayOfMonth() {
+		return EpochDays.getDayOfMonth(epochDay);
+	}
+
+	/**
+	 * @return der Wochentag nach ISO: 1 = Montag bis 7 = Sonntag
+	 */
+	public int getDayOfWeek() {
+		return EpochDays.getDayOfWeek(epochDay);
+	}
+
+	/**
+	 * @param days Anzahl Tage, darf negativ sein
+	 */
+	public Day plusDays(int days) {
+
+		return days == 0 ? this : new Day(Math.addExact(epochDay, days));
+	}
+
+	public boolean isBefore(Day other) {
+		return epochDay < other.epochDay;
+	}
+
+	public boolean isAfter(Day other) {
+		return epochDay > other.epochDay;
+	}
+
+	/**
+	 * @return Mitternacht des Tages in der Default-Zeitzone als neues {@link Date}
+	 */
+	public Date toDate() {
+
+		return new Date(toEpochMilli(epochDay));
+	}
+
+	/**
+	 * Mitternacht des Tages in der Default-Zeitzone. Gerechnet wird mit den Offsets von {@link ZoneOffsetCache}, also
+	 * derselben Quelle wie {@link EpochDays#fromDate(Date)}, damit {@code from(toDate())} auch vor 1583 wieder
+	 * denselben Tag ergibt.
+	 *
+	 * @param epochDay Tage seit dem 1.1.1970
+	 */
+	static long toEpochMilli(int epochDay) {
+
+		ZoneOffsetCache zone = ZoneOffsetCache.ofDefault();
+		long millis = DateArithmetic.fromWall(epochDay, 0, zone);
+		if (millis != DateArithmetic.FALLBACK) {
+			return millis;
+		}
+		long wall = epochDay * EpochDays.MILLIS_PER_DAY;
+		millis = wall - zone.getOffset(wall - zone.getOffset(wall));
+		if (zone.toEpochDay(millis) == epochDay && zone.toEpochDay(millis - 1) < epochDay) {
+			return millis;
+		}
+		// Mitternacht faellt in eine Zeitumstellung, der Tag beginnt spaeter
+		return LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	public LocalDate toLocalDate() {
+		return LocalDate.ofEpochDay(epochDay);
+	}
+
+	/**
+	 * @return ein neues {@link java.sql.Date} mit {@link java.sql.Date#toLocalDate()} gleich {@link #toLocalDate()}
+	 */
+	public java.sql.Date toSqlDate() {
+		return java.sql.Date.valueOf(toLocalDate());
+	}
+
+	@Override
+	public int compareTo(Day other) {
+		return Integer.compare(epochDay, other.epochDay);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+
+		if (this == o) {
+			return true;
+		}
+		return o instanceof Day && epochDay == ((Day) o).epochDay;
+	}
+
+	@Override
+	public int hashCode() {
+		return epochDay;
+	}
+
+	/**
+	 * @return der Tag im Format {@code yyyy-MM-dd} wie {@link LocalDate#toString()}
+	 */
+	@Override
+	public String toString() {
+		return toLocalDate().toString();
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Ganzzahl-Arithmetik auf Kalendertagen, dargestellt als Anzahl Tage seit dem 1.1.1970 (wie
+ * {@link java.time.LocalDate#toEpochDay()}). Es wird der proleptische gregorianische Kalender verwendet.
+ * <p>
+ * Die Methoden allozieren keine Objekte und sind darum fuer heisse Pfade geeignet.
+ */
+public final class EpochDays {
+
+	public static final long MILLIS_PER_DAY = 86400000L;
+
+	/**
+	 * Tage vom 1.3.0000 bis zum 1.1.1970.
+	 */
+	private static final int DAYS_0000_TO_1970 = 719468;
+
+	private static final int DAYS_PER_400_YEARS = 146097;
+
+	/**
+	 * Wird nicht instanziert.
+	 */
+	private EpochDays() {
+	}
+
+	/**
+	 * @param year Jahr
+	 * @param month Monat (1-12)
+	 * @param dayOfMonth Tag im Monat (1-31), wird nicht validiert
+	 * @return Anzahl Tage seit dem 1.1.1970
+	 */
+	public static int of(int year, int month, int dayOfMonth) {
+
+		// Jahr beginnt fuer die Rechnung am 1. Maerz, damit der Schalttag am Ende liegt
+		int y = month <= 2 ? year - 1 : year;
+		int era = Math.floorDiv(y, 400);
+		int yearOfEra = y - era * 400;
+		int monthFromMarch = month > 2 ? month - 3 : month + 9;
+		int dayOfYear = (153 * monthFromMarch + 2) / 5 + dayOfMonth - 1;
+		int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+	}
+
+	/**
+	 * @return das Jahr des Tages
+	 */
+	public static int getYear(int epochDay) {
+
+		int z = epochDay + DAYS_0000_TO_1970;
+		int era = Math.floorDiv(z, DAYS_PER_400_YEARS);
+		int dayOfEra = z - era * DAYS_PER_400_YEARS;
+		int yearOfEra = yearOfEra(dayOfEra);
+		int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		int monthFromMarch = (5 * dayOfYear + 2) / 153;
+		int year = yearOfEra + era * 400;
+		return monthFromMarch < 10 ? year : year + 1;
+	}
+
+	/**
+	 * @return der Monat des Tages (1-12)
+	 */
+	public static int getMonth(int epochDay) {
+
+		int monthFromMarch = (5 * dayOfYearFromMarch(epochDay) + 2) / 153;
+		return monthFromMarch < 10 ? monthFromMarch + 3 : monthFromMarch - 9;
+	}
+
+	/**
+	 * @return der Tag im Monat (1-31)
+	 */
+	public static int getDayOfMonth(int epochDay) {
+
+		int dayOfYear = dayOfYearFromMarch(epochDay);
+		int monthFromMarch = (5 * dayOfYear + 2) / 153;
+		return dayOfYear - (153 * monthFromMarch + 2) / 5 + 1;
+	}
+
+	/**
+	 * @return der Tag als Zahl {@code yyyymmdd}, z.B. {@code 20170314}
+	 */
+	public static int toYyyymmdd(int epochDay) {
+
+		return getYear(epochDay) * 10000 + getMonth(epochDay) * 100 + getDayOfMonth(epochDay);
+	}
+
+	/**
+	 * @param yyyymmdd Datum als Zahl, z.B. {@code 20170314}. Wird nicht validiert.
+	 * @return Anzahl Tage seit dem 1.1.1970
+	 */
+	public static int fromYyyymmdd(int yyyymmdd) {
+
+		return of(yyyymmdd / 10000, yyyymmdd / 100 % 100, yyyymmdd % 100);
+	}
+
+	/**
+	 * @return der Wochentag nach ISO: 1 = Montag bis 7 = Sonntag
+	 */
+	public static int getDayOfWeek(int epochDay) {
+
+		// Der 1.1.1970 war ein Donnerstag
+		return Math.floorMod(epochDay + 3, 7) + 1;
+	}
+
+	/**
+	 * @return {@code true}, wenn das Jahr ein Schaltjahr ist
+	 */
+	public static boolean isLeapYear(int year) {
+
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	/**
+	 * @return Anzahl 29. Februar vom Tag {@code von} bis und mit Tag {@code bis}, 0 wenn {@code bis} vor {@code von}
+	 * liegt
+	 */
+	public static int countLeapDays(int von, int bis) {
+
+		if (bis < von) {
+			return 0;
+		}
+		return leapDaysUntil(bis) - leapDaysUntil(von - 1);
+	}
+
+	/**
+	 * @return Anzahl 29. Februar seit dem Jahr 0 bis und mit dem Tag
+	 */
+	private static int leapDaysUntil(int epochDay) {
+
+		int year = getYear(epochDay);
+		int vorjahr = year - 1;
+		int anzahl = Math.floorDiv(vorjahr, 4) - Math.floorDiv(vorjahr, 100) + Math.floorDiv(vorjahr, 400);
+		if (isLeapYear(year) && epochDay >= of(year, 2, 29)) {
+			anzahl++;
+		}
+		return anzahl;
+	}
+
+	/**
+	 * @return 365 oder 366
+	 */
+	public static int lengthOfYear(int year) {
+
+		return isLeapYear(year) ? 366 : 365;
+	}
+
+	/**
+	 * @param month Monat (1-12)
+	 * @return Anzahl Tage des Monats
+	 */
+	public static int lengthOfMonth(int year, int month) {
+
+		switch (month) {
+		case 2:
+			return isLeapYear(year) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	/**
+	 * Der Kalendertag, auf den {@code date} in der Default-Zeitzone faellt.
+	 */
+	public static int fromDate(Date date) {
+
+		return ZoneOffsetCache.ofDefault().toEpochDay(date.getTime());
+	}
+
+	/**
+	 * Der Kalendertag, auf den der Zeitpunkt {@code millis} in der gegebenen Zeitzone faellt.
+	 */
+	public static int fromMillis(long millis, TimeZone zone) {
+
+		return (int) Math.floorDiv(millis + zone.getOffset(millis), MILLIS_PER_DAY);
+	}
+
+	/**
+	 * @return Tag im Jahr ab dem 1. Maerz, 0-basiert
+	 */
+	private static int dayOfYearFromMarch(int epochDay) {
+
+		int z = epochDay + DAYS_0000_TO_1970;
+		int dayOfEra = z - Math.floorDiv(z, DAYS_PER_400_YEARS) * DAYS_PER_400_YEARS;
+		int yearOfEra = yearOfEra(dayOfEra);
+		return dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+	}
+
+	private static int yearOfEra(int dayOfEra) {
+
+		return (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / (DAYS_PER_400_YEARS - 1)) / 365;
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.util.stream.IntStream;
+
+/**
+ * Kalenderwochen nach den Regeln von {@link DateHelper} (Locale de_CH: Woche beginnt am Montag, die erste Woche
+ * hat mindestens 4 Tage im neuen Jahr, d.h. ISO 8601).
+ * <p>
+ * Eine Kalenderwoche wird als Zahl {@code yyyyww} dargestellt, z.B. {@code 200453} fuer die Woche 53 des Jahres 2004,
+ * zu der auch der 1.1.2005 gehoert. So sortiert, gruppiert und vergleicht man Wochen ohne Objekte. Alle Methoden
+ * rechnen auf Tagen seit dem 1.1.1970 (siehe {@link EpochDays}) und allozieren nichts.
+ */
+// benannt nach den dargestellten Werten wie EpochDays, nicht nach dem Muster *Helper der Hilfsklassen
+@SuppressWarnings("PMD.ClassNamingConventions")
+public final class KalenderWoche {
+
+	/**
+	 * Ab dieser Anzahl Werte wird {@link #ofAll(int[], int[])} parallel berechnet.
+	 */
+	private static final int BULK_SCHWELLE = 1 << 13;
+
+	/**
+	 * Wird nicht instanziert.
+	 */
+	private KalenderWoche() {
+	}
+
+	/**
+	 * @param epochDay Tage seit dem 1.1.1970
+	 * @return die Kalenderwoche des Tages als {@code yyyyww}
+	 */
+	public static int of(int epochDay) {
+
+		// die Woche gehoert zum Jahr, in dem ihr Donnerstag liegt
+		int donnerstag = epochDay - EpochDays.getDayOfWeek(epochDay) + 4;
+		int jahr = EpochDays.getYear(donnerstag);
+		int woche = (donnerstag - EpochDays.of(jahr, 1, 1)) / 7 + 1;
+		return jahr * 100 + woche;
+	}
+
+	/**
+	 * @param kalenderWoche Kalenderwoche als {@code yyyyww}
+	 * @return das Jahr, zu dem die Woche gehoert
+	 */
+	public static int getJahr(int kalenderWoche) {
+
+		return kalenderWoche / 100;
+	}
+
+	/**
+	 * @param kalenderWoche Kalenderwoche als {@code yyyyww}
+	 * @return die Nummer der Woche, 1 bis 53
+	 */
+	public static int getWoche(int kalenderWoche) {
+
+		return kalenderWoche % 100;
+	}
+
+	/**
+	 * @param kalenderWoche Kalenderwoche als {@code yyyyww}
+	 * @return der Montag der Woche in Tagen seit dem 1.1.1970
+	 */
+	public static int getMontag(int kalenderWoche) {
+
+		int vierterJanuar = EpochDays.of(getJahr(kalenderWoche), 1, 4);
+		// der 4. Januar liegt immer in der Woche 1
+		int montagWoche1 = vierterJanuar - EpochDays.getDayOfWeek(vierterJanuar) + 1;
+		return montagWoche1 + (getWoche(kalenderWoche) - 1) * 7;
+	}
+
+	/**
+	 * @return Anzahl Wochen des Jahres, 52 oder 53
+	 */
+	public static int getAnzahlWochen(int jahr) {
+
+		return getWoche(of(EpochDays.of(jahr, 12, 28)));
+	}
+
+	/**
+	 * Berechnet {@link #of(int)} fuer alle Tage, z.B. um Datensaetze nach Kalenderwoche zu gruppieren. Grosse Arrays
+	 * werden parallel berechnet.
+	 *
+	 * @param epochDays Tage seit dem 1.1.1970
+	 * @param kalenderWochen Resultat als {@code yyyyww}, mindestens so lang wie {@code epochDays}
+	 */
+	public static void ofAll(int[] epochDays, int[] kalenderWochen) {
+
+		if (epochDays == null || kalenderWochen == null) {
+			throw new IllegalArgumentException("arrays must not be null");
+		}
+		if (kalenderWochen.length < epochDays.length) {
+			throw new IllegalArgumentException("kalenderWochen is shorter than epochDays: " + kalenderWochen.length);
+		}
+		int n = epochDays.length;
+		(n > BULK_SCHWELLE ? IntStream.range(0, n).parallel() : IntStream.range(0, n))
+			.forEach(i -> kalenderWochen[i] = of(epochDays[i]));
+	}
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Threadsicheres Formatieren und Parsen von Daten im Format {@code dd.MM.yyyy}, mit denselben Resultaten wie ein
+ * nicht-lenienter {@code new SimpleDateFormat("dd.MM.yyyy")} in der Default-Zeitzone und -Locale.
+ * <p>
+ * Der Normalfall (Jahre 1583 bis 9999, Text genau {@code d.M.yyyy} mit ein- oder zweistelligem Tag und Monat) wird
+ * ohne Allokation von Hilfsobjekten direkt gerechnet. Alles andere, insbesondere jeder fehlerhafte Text, geht an
+ * einen {@link SimpleDateFormat} pro Thread. Damit sind auch die {@link ParseException}s dieselben wie bisher.
+ */
+public final class SwissDateFormat {
+
+	public static final String PATTERN = "dd.MM.yyyy";
+
+	private static final int LAENGE = PATTERN.length();
+
+	private static final ThreadLocal<Fallback> FALLBACK = new ThreadLocal<>();
+
+	/**
+	 * Zuletzt gepruefte Default-Locale. Nur mit gregorianischem Kalender und ASCII-Ziffern wird selbst gerechnet.
+	 */
+	private static volatile LocaleCheck localeCheck = new LocaleCheck(null, false);
+
+	/**
+	 * Wird nicht instanziert.
+	 */
+	private SwissDateFormat() {
+	}
+
+	/**
+	 * @return das Datum im Format {@code dd.MM.yyyy}
+	 */
+	public static String format(Date date) {
+
+		if (date == null) {
+			throw new IllegalArgumentException("date is null");
+		}
+		StringBuilder sb = new StringBuilder(LAENGE);
+		formatTo(date, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Haengt das Datum im Format {@code dd.MM.yyyy} an {@code sb} an.
+	 *
+	 * @return {@code sb}
+	 */
+	public static StringBuilder formatTo(Date date, StringBuilder sb) {
+
+		try {
+			formatTo(date, (Appendable) sb);
+		} catch (IOException e) {
+			// StringBuilder wirft keine IOException
+			throw new UncheckedIOException(e);
+		}
+		return sb;
+	}
+
+	/**
+	 * Haengt das Datum im Format {@code dd.MM.yyyy} an {@code out} an.
+	 *
+	 * @return {@code out}
+	 */
+	public static <A extends Appendable> A formatTo(Date date, A out) throws IOException {
+
+		if (date == null) {
+			throw new IllegalArgumentException("date is null");
+		}
+		if (out == null) {
+			throw new IllegalArgumentException("out is null");
+		}
+		if (isStandardLocale()) {
+			int tag = ZoneOffsetCache.ofDefault().toEpochDay(date.getTime());
+			if (DateArithmetic.isInRange(tag)) {
+				appendZweistellig(out, EpochDays.getDayOfMonth(tag));
+				out.append('.');
+				appendZweistellig(out, EpochDays.getMonth(tag));
+				out.append('.');
+				int year = EpochDays.getYear(tag);
+				appendZweistellig(out, year / 100);
+				appendZweistellig(out, year % 100);
+				return out;
+			}
+		}
+		out.append(getFormat().format(date));
+		return out;
+	}
+
+	private static void appendZweistellig(Appendable out, int wert) throws IOException {
+
+		out.append((char) ('0' + wert / 10));
+		out.append((char) ('0' + wert % 10));
+	}
+
+	/**
+	 * Wie {@code SimpleDateFormat.parse(text)}: Text nach dem Datum wird ignoriert.
+	 *
+	 * @return Mitternacht des Tages in der Default-Zeitzone
+	 * @throws ParseException wenn am Anfang des Textes kein gueltiges Datum steht
+	 */
+	public static Date parse(CharSequence text) throws ParseException {
+
+		if (text == null) {
+			throw new IllegalArgumentException("text is null");
+		}
+		return parse(text, 0, text.length());
+	}
+
+	/**
+	 * Parst den Bereich {@code [start, end)} von {@code text}. Ein {@link ParseException#getErrorOffset()} bezieht
+	 * sich auf {@code text}.
+	 *
+	 * @return Mitternacht des Tages in der Default-Zeitzone
+	 * @throws ParseException wenn am Anfang des Bereiches kein gueltiges Datum steht
+	 */
+	public static Date parse(CharSequence text, int start, int end) throws ParseException {
+
+		checkRange(text, start, end);
+		int tag = parseStandard(text, start, end);
+		if (tag != Integer.MIN_VALUE) {
+			long millis = DateArithmetic.fromWall(tag, 0, ZoneOffsetCache.ofDefault());
+			if (millis != DateArithmetic.FALLBACK) {
+				return new Date(millis);
+			}
+		}
+		return parseFallback(text, start, end);
+	}
+
+	/**
+	 * Wie {@link #parse(CharSequence, int, int)}, aber ohne ein {@link Date} zu erzeugen.
+	 *
+	 * @return Tage seit dem 1.1.1970 (siehe {@link EpochDays})
+	 * @throws ParseException wenn am Anfang des Bereiches kein gueltiges Datum steht
+	 */
+	public static int parseEpochDay(CharSequence text, int start, int end) throws ParseException {
+
+		checkRange(text, start, end);
+		int tag = parseStandard(text, start, end);
+		if (tag != Integer.MIN_VALUE) {
+			return tag;
+		}
+		return EpochDays.fromDate(parseFallback(text, start, end));
+	}
+
+	private static void checkRange(CharSequence text, int start, int end) {
+
+		if (text == null) {
+			throw new IllegalArgumentException("text is null");
+		}
+		if (start < 0 || end > text.length() || start > end) {
+			throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + text.length());
+		}
+	}
+
+	/**
+	 * @return der Tag, falls der Bereich genau ein gueltiges Datum {@code d.M.yyyy} im Bereich 1583 bis 9999 ist,
+	 * sonst {@link Integer#MIN_VALUE}
+	 */
+	private static int parseStandard(CharSequence text, int start, int end) {
+
+		if (!isStandardLocale()) {
+			return Integer.MIN_VALUE;
+		}
+		int pos = start;
+		int day = 0;
+		int ziffern = 0;
+		while (pos < end && ziffern < 3 && isAsciiDigit(text.charAt(pos))) {
+			day = day * 10 + text.charAt(pos++) - '0';
+			ziffern++;
+		}
+		if (ziffern == 0 || ziffern > 2 || pos == end || text.charAt(pos++) != '.') {
+			return Integer.MIN_VALUE;
+		}
+		int month = 0;
+		ziffern = 0;
+		while (pos < end && ziffern < 3 && isAsciiDigit(text.charAt(pos))) {
+			month = month * 10 + text.charAt(pos++) - '0';
+			ziffern++;
+		}
+		if (ziffern == 0 || ziffern > 2 || pos == end || text.charAt(pos++) != '.') {
+			return Integer.MIN_VALUE;
+		}
+		if (end - pos != 4) {
+			return Integer.MIN_VALUE;
+		}
+		int year = 0;
+		while (pos < end) {
+			char c = text.charAt(pos++);
+			if (!isAsciiDigit(c)) {
+				return Integer.MIN_VALUE;
+			}
+			year = year * 10 + c - '0';
+		}
+		if (year < 1583 || month < 1 || month > 12 || day < 1 || day > EpochDays.lengthOfMonth(year, month)) {
+			return Integer.MIN_VALUE;
+		}
+		return EpochDays.of(year, month, day);
+	}
+
+	private static boolean isAsciiDigit(char c) {
+
+		return c >= '0' && c <= '9';
+	}
+
+	private static Date parseFallback(CharSequence text, int start, int end) throws ParseException {
+
+		try {
+			return getFormat().parse(text.subSequence(start, end).toString());
+		} catch (ParseException e) {
+			if (start == 0) {
+				throw e;
+			}
+			ParseException verschoben = new ParseException(e.getMessage(), e.getErrorOffset() + start);
+			verschoben.initCause(e);
+			throw verschoben;
+		}
+	}
+
+	/**
+	 * @return ein nicht-lenienter {@link SimpleDateFormat} fuer den aktuellen Thread mit der aktuellen
+	 * Default-Zeitzone und -Locale
+	 */
+	private static SimpleDateFormat getFormat() {
+
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		TimeZone zone = TimeZone.getDefault();
+		Fallback fallback = FALLBACK.get();
+		if (fallback == null || !fallback.locale.equals(locale) || !fallback.format.getTimeZone().equals(zone)) {
+			SimpleDateFormat format = new SimpleDateFormat(PATTERN, locale);
+			format.setLenient(false);
+			fallback = new Fallback(locale, format);
+			FALLBACK.set(fallback);
+		}
+		return fallback.format;
+	}
+
+	private static boolean isStandardLocale() {
+
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		LocaleCheck check = localeCheck;
+		if (check.locale != locale) {
+			Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"), locale);
+			boolean standard = "gregory".equals(calendar.getCalendarType())
+				&& DecimalFormatSymbols.getInstance(locale).getZeroDigit() == '0';
+			check = new LocaleCheck(locale, standard);
+			localeCheck = check;
+		}
+		return check.standard;
+	}
+
+	private static final class Fallback {
+
+		private final Locale locale;
+		private final SimpleDateFormat format;
+
+		private Fallback(Locale locale, SimpleDateFormat format) {
+			this.locale = locale;
+			this.format = format;
+		}
+	}
+
+	private static final class LocaleCheck {
+
+		private final Locale locale;
+		private final boolean standard;
+
+		private LocaleCheck(Locale locale, boolean standard) {
+			this.locale = locale;
+			this.standard = standard;
+		}
+	}
+}
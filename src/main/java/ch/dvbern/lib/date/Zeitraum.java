@@ -15,18 +15,32 @@
 
 package ch.dvbern.lib.date;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.text.DateFormat;
-import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Zeitraum von einem Tag bis zu einem Tag (beide inklusive). Gespeichert werden nur die beiden Tage als Tage seit
+ * dem 1.1.1970 (siehe {@link Day}), {@link #getVon()} und {@link #getBis()} liefern Mitternacht in der
+ * Default-Zeitzone.
+ * <p>
+ * Die Zeit der Daten spielt keine Rolle: Zeitraeume, die sich nur in der Zeit von {@code von} oder {@code bis}
+ * unterscheiden, sind gleich ({@link #equals(Object)}, {@link #hashCode()}, {@link #compareTo(Zeitraum)}), und
+ * {@link #contains(Date)} sowie {@link #getDistanceFrom(Date)} vergleichen den Tag des Datums.
+ */
 public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 
 	/**
@@ -34,11 +48,27 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 	 */
 	private static final long serialVersionUID = 6911730704492703726L;
 
-	private final DateFormat LONG_FORMAT = new SimpleDateFormat("dd.MM.yyyy");
-	private final DateFormat SHORT_FORMAT = new SimpleDateFormat("dd.MM.");
+	/**
+	 * Die serialisierte Form ist dieselbe wie zu der Zeit, als Zeitraum zwei {@link Date} und je einen
+	 * {@link DateFormat} pro Instanz hatte. So koennen alte und neue Versionen die Zeitraeume gegenseitig lesen.
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("LONG_FORMAT", DateFormat.class),
+		new ObjectStreamField("SHORT_FORMAT", DateFormat.class),
+		new ObjectStreamField("von", Date.class),
+		new ObjectStreamField("bis", Date.class)
+	};
+
+	/**
+	 * Nur fuer alte Versionen, welche die Formate zum Lesen brauchen. Innerhalb eines Streams werden sie nur einmal
+	 * geschrieben und danach referenziert.
+	 */
+	private static final DateFormat SERIAL_LONG_FORMAT = new SimpleDateFormat("dd.MM.yyyy");
+	private static final DateFormat SERIAL_SHORT_FORMAT = new SimpleDateFormat("dd.MM.");
 
-	private Date von;
-	private Date bis;
+	private int vonTag;
+	private int bisTag;
+	private transient int hash;
 
 	/**
 	 * Erstellt einen neuen Zeitraum.
@@ -53,26 +83,96 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 		if (bis == null) {
 			throw new IllegalArgumentException("bis ist null");
 		}
-		if (von.after(bis)) {
-			throw new IllegalArgumentException("von (" + von + ") muss gleich oder vor bis (" + bis
-				+ ") sein!");
+		int vonTag = EpochDays.fromDate(von);
+		int bisTag = EpochDays.fromDate(bis);
+		checkVonBis(vonTag, bisTag);
+		this.vonTag = vonTag;
+		this.bisTag = bisTag;
+	}
+
+	/**
+	 * Erstellt einen neuen Zeitraum von Mitternacht des Tages {@code von} bis Mitternacht des Tages {@code bis}
+	 * (Default-Zeitzone).
+	 *
+	 * @param von erster Tag des Zeitraumes
+	 * @param bis letzter Tag des Zeitraumes
+	 */
+	public Zeitraum(Day von, Day bis) {
+		if (von == null) {
+			throw new IllegalArgumentException("von ist null");
+		}
+		if (bis == null) {
+			throw new IllegalArgumentException("bis ist null");
 		}
-		this.von = von;
-		this.bis = bis;
+		checkVonBis(von.getEpochDay(), bis.getEpochDay());
+		this.vonTag = von.getEpochDay();
+		this.bisTag = bis.getEpochDay();
 	}
 
 	/**
-	 * @return the von
+	 * @param vonTag erster Tag als Tage seit dem 1.1.1970
+	 * @param bisTag letzter Tag als Tage seit dem 1.1.1970, nicht vor {@code vonTag}
+	 */
+	Zeitraum(int vonTag, int bisTag) {
+		checkVonBis(vonTag, bisTag);
+		this.vonTag = vonTag;
+		this.bisTag = bisTag;
+	}
+
+	private static void checkVonBis(int vonTag, int bisTag) {
+		if (vonTag > bisTag) {
+			throw new IllegalArgumentException("von (" + Day.ofEpochDay(vonTag) + ") muss gleich oder vor bis ("
+				+ Day.ofEpochDay(bisTag) + ") sein!");
+		}
+	}
+
+	/**
+	 * @return the von, Mitternacht in der Default-Zeitzone als neues {@link Date}
 	 */
 	public Date getVon() {
-		return von;
+		return new Date(mitternacht(vonTag));
 	}
 
 	/**
-	 * @return the bis
+	 * @return the bis, Mitternacht in der Default-Zeitzone als neues {@link Date}
 	 */
 	public Date getBis() {
-		return bis;
+		return new Date(mitternacht(bisTag));
+	}
+
+	/**
+	 * @return der erste Tag des Zeitraumes
+	 */
+	public Day getVonDay() {
+		return Day.ofEpochDay(vonTag);
+	}
+
+	/**
+	 * @return der letzte Tag des Zeitraumes
+	 */
+	public Day getBisDay() {
+		return Day.ofEpochDay(bisTag);
+	}
+
+	/**
+	 * @return der erste Tag des Zeitraumes als Tage seit dem 1.1.1970
+	 */
+	int getVonEpochDay() {
+		return vonTag;
+	}
+
+	/**
+	 * @return der letzte Tag des Zeitraumes als Tage seit dem 1.1.1970
+	 */
+	int getBisEpochDay() {
+		return bisTag;
+	}
+
+	/**
+	 * Wie {@link Day#toDate()}, damit {@code new Zeitraum(getVon(), getBis())} wieder derselbe Zeitraum ist.
+	 */
+	private static long mitternacht(int tag) {
+		return Day.toEpochMilli(tag);
 	}
 
 	/**
@@ -85,9 +185,9 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 			return 1;
 		}
 
-		int value = von.compareTo(zeitraum.getVon());
+		int value = Integer.compare(vonTag, zeitraum.vonTag);
 		if (value == 0) {
-			return bis.compareTo(zeitraum.getBis());
+			return Integer.compare(bisTag, zeitraum.bisTag);
 		} else {
 			return value;
 		}
@@ -102,16 +202,31 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 	 * @return ein Array mit dem aufgesplitteten Zeitraum. Leere Liste wenn der Zeitraum kleiner oder gleich einem Monat ist.
 	 */
 	public Collection<Zeitraum> splitByMonth() {
-		List<Date> ersteDesMonats = new ArrayList<>();
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(von);
-		cal.add(Calendar.MONTH, 1);
-		cal.set(Calendar.DAY_OF_MONTH, 1);
-		while (!cal.getTime().after(bis)) {
-			ersteDesMonats.add(cal.getTime());
-			cal.add(Calendar.MONTH, 1);
+		if (ZeitraumRaster.MONATE.count(this) <= 1) {
+			return new ArrayList<>();
 		}
-		return split(ersteDesMonats.toArray(new Date[ersteDesMonats.size()]));
+		return streamByMonth().collect(Collectors.toList());
+	}
+
+	/**
+	 * Wie {@link #splitByMonth()}, aber lazy: die Unter-Zeiträume werden erst beim Konsumieren erzeugt. Für
+	 * Zeiträume innerhalb eines Monats enthält der Stream diesen Zeitraum.
+	 */
+	public Stream<Zeitraum> streamByMonth() {
+		return ZeitraumRaster.MONATE.stream(this);
+	}
+
+	/**
+	 * Spaltet den Zeitraum lazy in die Unter-Zeiträume auf, welche je in einer Zelle von {@code raster} liegen, z.B.
+	 * {@link ZeitraumRaster#WOCHEN} oder {@link ZeitraumRaster#QUARTALE}. Der Stream kennt seine Grösse und kann
+	 * parallel verarbeitet werden.
+	 */
+	public Stream<Zeitraum> streamSplit(ZeitraumRaster raster) {
+
+		if (raster == null) {
+			throw new IllegalArgumentException("raster ist null");
+		}
+		return raster.stream(this);
 	}
 
 	/**
@@ -163,7 +278,9 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 		List<Date> splitStartDatesList = Arrays.asList(splitStartDates);
 		Collections.sort(splitStartDatesList);
 		List<Zeitraum> retVal = new ArrayList<>();
-		Date startDate = this.von;
+		Date von = getVon();
+		Date bis = getBis();
+		Date startDate = von;
 		for (Date splitStartDate : splitStartDatesList) {
 			if (!contains(splitStartDate) || (ignoreBoundaryDates && (splitStartDate.equals(von) || splitStartDate.equals(bis)))) {
 				continue;
@@ -187,20 +304,7 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 	 */
 	public int getDuationInDays() {
 
-		int duration = 0;
-		int yearStart = DateHelper.getYear(von);
-		int yearEnd = DateHelper.getYear(bis);
-		for (int i = 0; i < yearEnd - yearStart + 1; i++) {
-			Date from = (i == 0 ? von : DateHelper.newDate(1, 1, yearStart + i));
-			Date to = (i == yearEnd - yearStart ? bis : DateHelper.newDate(31, 12, DateHelper.getYear(from)));
-			duration += getDurationSameYear(from, to);
-		}
-		return duration;
-	}
-
-	private int getDurationSameYear(Date from, Date to) {
-
-		return DateHelper.get(Calendar.DAY_OF_YEAR, to) - DateHelper.get(Calendar.DAY_OF_YEAR, from) + 1;
+		return bisTag - vonTag + 1;
 	}
 
 	/**
@@ -208,16 +312,27 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 	 */
 	public boolean intersects(Zeitraum other) {
 
-		return !(this.bis.before(other.getVon()) || this.von.after(other.getBis()));
+		return !(this.bisTag < other.vonTag || this.vonTag > other.bisTag);
 
 	}
 
 	/**
-	 * Gibt an, ob das gegebene Datum innerhalb des Zeitraumes ist, d.h. {@code date >= datumVon && date <= datumBis}
+	 * Gibt an, ob der Tag des gegebenen Datums (Default-Zeitzone) innerhalb des Zeitraumes ist. Die Zeit wird nicht
+	 * beruecksichtigt, der letzte Tag ist also bis 23:59:59.999 enthalten.
 	 */
 	public boolean contains(Date date) {
 
-		return !date.before(von) && !date.after(bis);
+		int tag = EpochDays.fromDate(date);
+		return tag >= vonTag && tag <= bisTag;
+	}
+
+	/**
+	 * Gibt an, ob der gegebene Tag innerhalb des Zeitraumes ist.
+	 */
+	public boolean contains(Day day) {
+
+		int tag = day.getEpochDay();
+		return tag >= vonTag && tag <= bisTag;
 	}
 
 	/**
@@ -234,49 +349,57 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 	 * Zeitraum Im obigen Beispiel beinhaltet die Liste subtracted 3 Zeiträume: 1.1.2009 - 31.12.2009,
 	 * 1.3.2009 - 30.6.2009 und 1.10.2009 - 31.12.2009.
 	 *
-	 * @return eine Liste von übriggebliebenen Zeiträumen.
+	 * Die Unterzeiträume dürfen sich überschneiden und in beliebiger Reihenfolge sein, das übergebene Array wird
+	 * nicht verändert.
+	 *
+	 * @return eine Liste von übriggebliebenen Zeiträumen, aufsteigend sortiert.
 	 */
 	public List<Zeitraum> subtract(Zeitraum... unterzeitraeume) {
 
-		Arrays.sort(unterzeitraeume);
-		List<Zeitraum> retVal = new ArrayList<>();
-		Zeitraum left = this;
+		if (unterzeitraeume == null) {
+			throw new IllegalArgumentException("unterzeitraeume ist null");
+		}
+		return subtract(Arrays.asList(unterzeitraeume));
+	}
 
+	/**
+	 * Wie {@link #subtract(Zeitraum...)}. Die Unterzeiträume werden einmal nach {@code von} sortiert (O(n log n))
+	 * und in einem Durchgang abgezogen, erzeugt werden nur die übriggebliebenen Zeiträume.
+	 *
+	 * @return eine Liste von übriggebliebenen Zeiträumen, aufsteigend sortiert.
+	 */
+	public List<Zeitraum> subtract(Collection<? extends Zeitraum> unterzeitraeume) {
+
+		if (unterzeitraeume == null) {
+			throw new IllegalArgumentException("unterzeitraeume ist null");
+		}
+		// von << 32 | bis der Unterzeiträume, die diesen Zeitraum überschneiden
+		long[] sortiert = new long[unterzeitraeume.size()];
+		int anzahl = 0;
 		for (Zeitraum uz : unterzeitraeume) {
-			if (uz.getVon().after(left.getBis()) || uz.getBis().before(left.getVon())) {
-				continue;
+			if (uz == null) {
+				throw new IllegalArgumentException("unterzeitraeume enthaelt null");
 			}
-			if (uz.getVon().before(left.getVon()) && uz.getBis().after(left.getBis())) {
-				return new ArrayList<>();
+			if (uz.bisTag >= vonTag && uz.vonTag <= bisTag) {
+				sortiert[anzahl++] = (long) uz.vonTag << 32 | (uz.bisTag & 0xFFFFFFFFL);
 			}
-			List<Zeitraum> splitted = (List<Zeitraum>) left.split(true, uz.getVon(), uz.getBis());
-
-			if (!uz.getVon().after(left.getVon())) {
-				if (!splitted.isEmpty()) {
-					Zeitraum lastSplitted = splitted.get(splitted.size() - 1);
-					left = new Zeitraum(DateHelper.addDays(lastSplitted.getVon(), 1), lastSplitted.getBis());
-				} else {
-					return retVal;
-				}
-			} else if (!uz.getBis().before(left.getBis())) {
-				retVal.add(new Zeitraum(left.getVon(), DateHelper.addDays(uz.getVon(), -1)));
+		}
+		Arrays.sort(sortiert, 0, anzahl);
+
+		List<Zeitraum> retVal = new ArrayList<>();
+		int von = vonTag;
+		for (int i = 0; i < anzahl; i++) {
+			int uzVon = (int) (sortiert[i] >> 32);
+			int uzBis = (int) sortiert[i];
+			if (uzVon > von) {
+				retVal.add(new Zeitraum(von, uzVon - 1));
+			}
+			if (uzBis >= bisTag) {
 				return retVal;
-			} else {
-				retVal.add(splitted.get(0));
-				Date leftVon, leftBis = null;
-				Zeitraum leftReferenceZeitraum = null;
-				if (splitted.size() > 2) {
-					leftReferenceZeitraum = splitted.get(2);
-				} else {
-					leftReferenceZeitraum = splitted.get(1);
-				}
-				leftVon = DateHelper.addDays(leftReferenceZeitraum.getVon(), 1);
-				leftBis = leftReferenceZeitraum.getBis();
-				left = new Zeitraum(leftVon, leftBis);
 			}
-
+			von = Math.max(von, uzBis + 1);
 		}
-		retVal.add(left);
+		retVal.add(new Zeitraum(von, bisTag));
 		return retVal;
 	}
 
@@ -297,13 +420,14 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 	 * Zeitaum enthalten ist.
 	 */
 	public long getDistanceFrom(Date date) {
-		long returnValue = 0;
-		if (date.before(von)) {
-			returnValue = date.getTime() - von.getTime();
-		} else if (date.after(bis)) {
-			returnValue = date.getTime() - bis.getTime();
+		int tag = EpochDays.fromDate(date);
+		if (tag < vonTag) {
+			return date.getTime() - mitternacht(vonTag);
 		}
-		return returnValue;
+		if (tag > bisTag) {
+			return date.getTime() - mitternacht(bisTag);
+		}
+		return 0;
 	}
 
 	/**
@@ -317,23 +441,27 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 	 */
 	@Override
 	public String toString() {
-		DateFormat toDateFormat = LONG_FORMAT;
-		DateFormat fromDateFormat = null;
-		if (DateHelper.getYear(von) != DateHelper.getYear(bis)) {
-			fromDateFormat = LONG_FORMAT;
-		} else {
-			fromDateFormat = SHORT_FORMAT;
+		StringBuilder sb = new StringBuilder(23);
+		SwissDateFormat.formatTo(getVon(), sb);
+		if (EpochDays.getYear(vonTag) == EpochDays.getYear(bisTag)) {
+			// dd.MM.
+			sb.setLength(6);
 		}
-		return MessageFormat.format("{0} - {1}", fromDateFormat.format(von), toDateFormat.format(bis));
+		sb.append(" - ");
+		return SwissDateFormat.formatTo(getBis(), sb).toString();
 	}
 
 	@Override
 	public int hashCode() {
 
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + bis.hashCode();
-		result = prime * result + von.hashCode();
+		int result = hash;
+		if (result == 0) {
+			final int prime = 31;
+			result = 1;
+			result = prime * result + bisTag;
+			result = prime * result + vonTag;
+			hash = result;
+		}
 		return result;
 	}
 
@@ -350,6 +478,35 @@ public class Zeitraum implements Comparable<Zeitraum>, Serializable {
 			return false;
 		}
 		final Zeitraum other = (Zeitraum) obj;
-		return bis.equals(other.bis) && von.equals(other.von);
+		return bisTag == other.bisTag && vonTag == other.vonTag;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("LONG_FORMAT", SERIAL_LONG_FORMAT);
+		fields.put("SHORT_FORMAT", SERIAL_SHORT_FORMAT);
+		fields.put("von", getVon());
+		fields.put("bis", getBis());
+		out.writeFields();
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+
+		ObjectInputStream.GetField fields = in.readFields();
+		Date von = (Date) fields.get("von", null);
+		Date bis = (Date) fields.get("bis", null);
+		if (von == null || bis == null) {
+			throw new InvalidObjectException("von und bis duerfen nicht null sein");
+		}
+		vonTag = EpochDays.fromDate(von);
+		bisTag = EpochDays.fromDate(bis);
+		try {
+			checkVonBis(vonTag, bisTag);
+		} catch (IllegalArgumentException e) {
+			InvalidObjectException invalid = new InvalidObjectException(e.getMessage());
+			invalid.initCause(e);
+			throw invalid;
+		}
 	}
 }
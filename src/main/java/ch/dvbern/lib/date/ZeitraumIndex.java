@@ -0,0 +1,406 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Unveraenderlicher Index ueber eine Menge von {@link Zeitraum}en, um schnell alle Zeitraeume zu finden, die einen
+ * Tag enthalten oder sich mit einem Zeitraum ueberschneiden.
+ * <p>
+ * Intern ein zentrierter Intervall-Baum auf Tagen seit dem 1.1.1970: jeder Knoten haelt die Zeitraeume, die seinen
+ * Mitteltag enthalten, einmal nach {@code von} und einmal nach {@code bis} sortiert, kleinere Zeitraeume liegen
+ * links, groessere rechts. Tag und Index eines Zeitraumes sind in ein {@code long} gepackt, sortiert wird also auf
+ * primitiven Arrays. Eine Abfrage kostet O(log n + k) fuer k Treffer, die Treffer werden erst beim Iterieren
+ * gesucht. Grosse Mengen werden per Fork/Join parallel aufgebaut.
+ * <p>
+ * Die Zeitraeume werden mit ihrem Index in der uebergebenen Reihenfolge adressiert (siehe {@link #get(int)}), die
+ * Treffer einer Abfrage kommen in keiner bestimmten Reihenfolge. Der Index ist thread-safe.
+ */
+public final class ZeitraumIndex {
+
+	/**
+	 * Teilbaeume bis zu dieser Groesse werden im aufrufenden Thread aufgebaut, groessere parallel.
+	 */
+	private static final int BULK_SCHWELLE = 1 << 13;
+
+	private static final int ENDE = -1;
+
+	private final Zeitraum[] zeitraeume;
+
+	/**
+	 * Alle Zeitraeume als {@code von << 32 | index}, aufsteigend sortiert.
+	 */
+	private final long[] nachVon;
+
+	private final Knoten wurzel;
+
+	private ZeitraumIndex(Zeitraum[] zeitraeume) {
+
+		this.zeitraeume = zeitraeume;
+		int anzahl = zeitraeume.length;
+		long[] alleNachVon = new long[anzahl];
+		int[] bis = new int[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			Zeitraum zeitraum = zeitraeume[i];
+			if (zeitraum == null) {
+				throw new IllegalArgumentException("zeitraeume enthaelt null bei Index " + i);
+			}
+			alleNachVon[i] = pack(zeitraum.getVonEpochDay(), i);
+			bis[i] = zeitraum.getBisEpochDay();
+		}
+		if (anzahl > BULK_SCHWELLE) {
+			Arrays.parallelSort(alleNachVon);
+			this.wurzel = ForkJoinPool.commonPool().invoke(new BaueTask(alleNachVon, bis));
+		} else {
+			Arrays.sort(alleNachVon);
+			this.wurzel = baue(alleNachVon, bis);
+		}
+		this.nachVon = alleNachVon;
+	}
+
+	/**
+	 * Baut den Index auf. Die Collection wird kopiert, spaetere Aenderungen daran aendern den Index nicht.
+	 *
+	 * @param zeitraeume die Zeitraeume, ohne {@code null}
+	 */
+	public static ZeitraumIndex of(Collection<Zeitraum> zeitraeume) {
+
+		if (zeitraeume == null) {
+			throw new IllegalArgumentException("zeitraeume is null");
+		}
+		return new ZeitraumIndex(zeitraeume.toArray(new Zeitraum[zeitraeume.size()]));
+	}
+
+	/**
+	 * @return Anzahl Zeitraeume im Index
+	 */
+	public int size() {
+		return zeitraeume.length;
+	}
+
+	/**
+	 * @param index Index in der Reihenfolge, in welcher die Zeitraeume uebergeben wurden
+	 */
+	public Zeitraum get(int index) {
+		return zeitraeume[index];
+	}
+
+	/**
+	 * @param epochDay Tage seit dem 1.1.1970
+	 * @return die Indizes (siehe {@link #get(int)}) aller Zeitraeume, die den Tag enthalten
+	 */
+	public PrimitiveIterator.OfInt indexesContaining(int epochDay) {
+
+		return new Treffer(epochDay, epochDay);
+	}
+
+	/**
+	 * @param vonEpochDay erster Tag (inklusive) als Tage seit dem 1.1.1970
+	 * @param bisEpochDay letzter Tag (inklusive) als Tage seit dem 1.1.1970
+	 * @return die Indizes (siehe {@link #get(int)}) aller Zeitraeume, die mindestens einen Tag von
+	 * {@code vonEpochDay} bis {@code bisEpochDay} enthalten
+	 */
+	public PrimitiveIterator.OfInt indexesOverlapping(int vonEpochDay, int bisEpochDay) {
+
+		if (vonEpochDay > bisEpochDay) {
+			throw new IllegalArgumentException("von (" + vonEpochDay + ") muss gleich oder vor bis (" + bisEpochDay
+				+ ") sein!");
+		}
+		return new Treffer(vonEpochDay, bisEpochDay);
+	}
+
+	/**
+	 * @return alle Zeitraeume, die den Tag enthalten (siehe {@link Zeitraum#contains(Day)})
+	 */
+	public Iterator<Zeitraum> containing(Day day) {
+
+		if (day == null) {
+			throw new IllegalArgumentException("day is null");
+		}
+		return zeitraeume(indexesContaining(day.getEpochDay()));
+	}
+
+	/**
+	 * @return alle Zeitraeume, die sich mit {@code zeitraum} ueberschneiden
+	 * (siehe {@link Zeitraum#intersects(Zeitraum)})
+	 */
+	public Iterator<Zeitraum> overlapping(Zeitraum zeitraum) {
+
+		if (zeitraum == null) {
+			throw new IllegalArgumentException("zeitraum is null");
+		}
+		return zeitraeume(indexesOverlapping(zeitraum.getVonEpochDay(), zeitraum.getBisEpochDay()));
+	}
+
+	/**
+	 * Wie {@link #containing(Day)} als sequentieller Stream.
+	 */
+	public Stream<Zeitraum> streamContaining(Day day) {
+
+		return stream(containing(day));
+	}
+
+	/**
+	 * Wie {@link #overlapping(Zeitraum)} als sequentieller Stream.
+	 */
+	public Stream<Zeitraum> streamOverlapping(Zeitraum zeitraum) {
+
+		return stream(overlapping(zeitraum));
+	}
+
+	private Iterator<Zeitraum> zeitraeume(PrimitiveIterator.OfInt indexe) {
+
+		return new Iterator<Zeitraum>() {
+			@Override
+			public boolean hasNext() {
+				return indexe.hasNext();
+			}
+
+			@Override
+			public Zeitraum next() {
+				return zeitraeume[indexe.nextInt()];
+			}
+		};
+	}
+
+	private static Stream<Zeitraum> stream(Iterator<Zeitraum> iterator) {
+
+		int characteristics = Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, characteristics), false);
+	}
+
+	/**
+	 * @return der erste Index in {@link #nachVon} mit {@code von > tag}
+	 */
+	private int ersterNach(int tag) {
+
+		int low = 0;
+		int high = nachVon.length;
+		while (low < high) {
+			int mitte = (low + high) >>> 1;
+			if (tag(nachVon[mitte]) <= tag) {
+				low = mitte + 1;
+			} else {
+				high = mitte;
+			}
+		}
+		return low;
+	}
+
+	private static long pack(int tag, int index) {
+		return (long) tag << 32 | index;
+	}
+
+	private static int tag(long wert) {
+		return (int) (wert >> 32);
+	}
+
+	private static int index(long wert) {
+		return (int) wert;
+	}
+
+	/**
+	 * @param nachVon Zeitraeume als {@code von << 32 | index}, aufsteigend sortiert
+	 * @param bis {@code bis} aller Zeitraeume nach Index
+	 */
+	private static Knoten baue(long[] nachVon, int[] bis) {
+
+		if (nachVon.length == 0) {
+			return null;
+		}
+		// der mittlere Zeitraum nach von enthaelt den Mitteltag, links und rechts bleibt je hoechstens die Haelfte
+		int mitte = tag(nachVon[nachVon.length >>> 1]);
+		int anzahlLinks = 0;
+		int anzahlRechts = 0;
+		for (long wert : nachVon) {
+			if (bis[index(wert)] < mitte) {
+				anzahlLinks++;
+			} else if (tag(wert) > mitte) {
+				anzahlRechts++;
+			}
+		}
+		long[] links = new long[anzahlLinks];
+		long[] rechts = new long[anzahlRechts];
+		long[] mitteNachVon = new long[nachVon.length - anzahlLinks - anzahlRechts];
+		long[] mitteNachBis = new long[mitteNachVon.length];
+		int l = 0;
+		int r = 0;
+		int m = 0;
+		for (long wert : nachVon) {
+			int index = index(wert);
+			if (bis[index] < mitte) {
+				links[l++] = wert;
+			} else if (tag(wert) > mitte) {
+				rechts[r++] = wert;
+			} else {
+				mitteNachBis[m] = pack(bis[index], index);
+				mitteNachVon[m++] = wert;
+			}
+		}
+		Arrays.sort(mitteNachBis);
+		Knoten knoten = new Knoten(mitte, mitteNachVon, mitteNachBis);
+		if (nachVon.length > BULK_SCHWELLE) {
+			BaueTask rechtsTask = new BaueTask(rechts, bis);
+			rechtsTask.fork();
+			knoten.links = baue(links, bis);
+			knoten.rechts = rechtsTask.join();
+		} else {
+			knoten.links = baue(links, bis);
+			knoten.rechts = baue(rechts, bis);
+		}
+		return knoten;
+	}
+
+	private static final class Knoten {
+
+		private final int mitte;
+		/**
+		 * Die Zeitraeume, welche {@link #mitte} enthalten, als {@code von << 32 | index} aufsteigend sortiert.
+		 */
+		private final long[] nachVon;
+		/**
+		 * Dieselben Zeitraeume als {@code bis << 32 | index} aufsteigend sortiert.
+		 */
+		private final long[] nachBis;
+		/**
+		 * Zeitraeume mit {@code bis < mitte}.
+		 */
+		private Knoten links;
+		/**
+		 * Zeitraeume mit {@code von > mitte}.
+		 */
+		private Knoten rechts;
+
+		// die Arrays werden nur beim Aufbau erstellt und danach nicht mehr veraendert
+		@SuppressWarnings("PMD.ArrayIsStoredDirectly")
+		Knoten(int mitte, long[] nachVon, long[] nachBis) {
+
+			this.mitte = mitte;
+			this.nachVon = nachVon;
+			this.nachBis = nachBis;
+		}
+	}
+
+	private static final class BaueTask extends RecursiveTask<Knoten> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] nachVon;
+		private final int[] bis;
+
+		// der Task teilt die Arrays mit dem Aufrufer, eine Kopie pro Rekursionsstufe waere unnoetig
+		@SuppressWarnings("PMD.ArrayIsStoredDirectly")
+		BaueTask(long[] nachVon, int[] bis) {
+
+			this.nachVon = nachVon;
+			this.bis = bis;
+		}
+
+		@Override
+		protected Knoten compute() {
+			return baue(nachVon, bis);
+		}
+	}
+
+	/**
+	 * Sucht die Treffer erst beim Iterieren: zuerst alle Zeitraeume, die {@code von} enthalten, den Baum hinunter,
+	 * danach alle Zeitraeume, die nach {@code von} bis und mit {@code bis} beginnen.
+	 */
+	private final class Treffer implements PrimitiveIterator.OfInt {
+
+		private final int von;
+		private final int bis;
+
+		private Knoten knoten = wurzel;
+		private long[] liste;
+		private int position;
+		private boolean absteigend;
+		private int bereich = ENDE;
+		private int naechster;
+
+		Treffer(int von, int bis) {
+
+			this.von = von;
+			this.bis = bis;
+			this.naechster = suche();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return naechster != ENDE;
+		}
+
+		@Override
+		public int nextInt() {
+
+			if (naechster == ENDE) {
+				throw new NoSuchElementException();
+			}
+			int result = naechster;
+			naechster = suche();
+			return result;
+		}
+
+		private int suche() {
+
+			while (true) {
+				if (liste != null) {
+					if (!absteigend && position < liste.length && tag(liste[position]) <= von) {
+						return index(liste[position++]);
+					}
+					if (absteigend && position >= 0 && tag(liste[position]) >= von) {
+						return index(liste[position--]);
+					}
+					liste = null;
+				}
+				if (knoten == null) {
+					break;
+				}
+				Knoten aktuell = knoten;
+				if (von > aktuell.mitte) {
+					liste = aktuell.nachBis;
+					position = liste.length - 1;
+					absteigend = true;
+					knoten = aktuell.rechts;
+				} else {
+					// bei von == mitte enthalten alle Zeitraeume des Knotens den Tag
+					liste = aktuell.nachVon;
+					position = 0;
+					absteigend = false;
+					knoten = von < aktuell.mitte ? aktuell.links : null;
+				}
+			}
+			if (bereich == ENDE) {
+				bereich = ersterNach(von);
+			}
+			if (bereich < nachVon.length && tag(nachVon[bereich]) <= bis) {
+				return index(nachVon[bereich++]);
+			}
+			return ENDE;
+		}
+	}
+}
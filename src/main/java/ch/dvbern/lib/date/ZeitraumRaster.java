@@ -0,0 +1,271 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Einteilung der Zeitachse in lueckenlos aneinander anschliessende Abschnitte (Zellen), z.B. Kalendermonate,
+ * ISO-Wochen oder Geschaeftsjahre. Damit wird ein {@link Zeitraum} in die Teile zerlegt, die je in einer Zelle
+ * liegen (siehe {@link #stream(Zeitraum)}).
+ * <p>
+ * Die Grenzen der Zellen werden auf Tagen seit dem 1.1.1970 berechnet, ohne Calendar und ohne die Grenzen vorher zu
+ * sammeln. Die Teile werden erst beim Konsumieren des Streams erzeugt, der Stream kennt seine Groesse und laesst
+ * sich fuer die parallele Verarbeitung gleichmaessig aufteilen.
+ */
+public abstract class ZeitraumRaster {
+
+	/**
+	 * ISO-Wochen von Montag bis Sonntag.
+	 */
+	public static final ZeitraumRaster WOCHEN = ofDays(7, Day.of(2001, 1, 1));
+
+	/**
+	 * Kalendermonate.
+	 */
+	public static final ZeitraumRaster MONATE = ofMonths(1, 1);
+
+	/**
+	 * Kalenderquartale, beginnend am 1.1., 1.4., 1.7. und 1.10.
+	 */
+	public static final ZeitraumRaster QUARTALE = ofMonths(3, 1);
+
+	/**
+	 * Kalenderjahre.
+	 */
+	public static final ZeitraumRaster JAHRE = ofMonths(12, 1);
+
+	/**
+	 * Wird nur hier abgeleitet.
+	 */
+	private ZeitraumRaster() {
+	}
+
+	/**
+	 * Zellen von je {@code anzahlMonate} Monaten, die am ersten Tag eines Monats beginnen. Eine Zelle beginnt im
+	 * Monat {@code ersterMonat}, z.B. {@code ofMonths(12, 7)} fuer Geschaeftsjahre vom 1.7. bis 30.6. oder
+	 * {@code ofMonths(6, 1)} fuer Halbjahre.
+	 *
+	 * @param anzahlMonate Laenge einer Zelle in Monaten, mindestens 1
+	 * @param ersterMonat Monat (1-12), in dem eine Zelle beginnt
+	 */
+	public static ZeitraumRaster ofMonths(int anzahlMonate, int ersterMonat) {
+
+		if (anzahlMonate < 1) {
+			throw new IllegalArgumentException("anzahlMonate must be positive: " + anzahlMonate);
+		}
+		if (ersterMonat < 1 || ersterMonat > 12) {
+			throw new IllegalArgumentException("invalid month: " + ersterMonat);
+		}
+		return new Monate(anzahlMonate, ersterMonat - 1);
+	}
+
+	/**
+	 * Zellen von je {@code anzahlTage} Tagen, eine davon beginnt am Tag {@code anker}, z.B. 14-taegige
+	 * Lohnperioden.
+	 *
+	 * @param anzahlTage Laenge einer Zelle in Tagen, mindestens 1
+	 * @param anker ein Tag, an dem eine Zelle beginnt
+	 */
+	public static ZeitraumRaster ofDays(int anzahlTage, Day anker) {
+
+		if (anzahlTage < 1) {
+			throw new IllegalArgumentException("anzahlTage must be positive: " + anzahlTage);
+		}
+		if (anker == null) {
+			throw new IllegalArgumentException("anker is null");
+		}
+		return new Tage(anzahlTage, anker.getEpochDay());
+	}
+
+	/**
+	 * @return die Zelle, in welcher der Tag liegt
+	 */
+	public Zeitraum getZelle(Day day) {
+
+		if (day == null) {
+			throw new IllegalArgumentException("day is null");
+		}
+		int zelle = zelle(day.getEpochDay());
+		return new Zeitraum(beginn(zelle), beginn(zelle + 1) - 1);
+	}
+
+	/**
+	 * @return Anzahl Zellen, die mindestens einen Tag von {@code zeitraum} enthalten
+	 */
+	public int count(Zeitraum zeitraum) {
+
+		if (zeitraum == null) {
+			throw new IllegalArgumentException("zeitraum is null");
+		}
+		return zelle(zeitraum.getBisEpochDay()) - zelle(zeitraum.getVonEpochDay()) + 1;
+	}
+
+	/**
+	 * Die Teile von {@code zeitraum}, die je in einer Zelle liegen, aufsteigend. Der erste und der letzte Teil
+	 * koennen angebrochene Zellen sein. Liegt der Zeitraum in einer einzigen Zelle, besteht der Stream aus einem
+	 * Teil, der gleich {@code zeitraum} ist.
+	 */
+	public Spliterator<Zeitraum> spliterator(Zeitraum zeitraum) {
+
+		if (zeitraum == null) {
+			throw new IllegalArgumentException("zeitraum is null");
+		}
+		int von = zeitraum.getVonEpochDay();
+		int bis = zeitraum.getBisEpochDay();
+		return new Teile(von, bis, zelle(von), zelle(bis) + 1);
+	}
+
+	/**
+	 * Wie {@link #spliterator(Zeitraum)} als sequentieller Stream, mit {@link Stream#parallel()} parallel.
+	 */
+	public Stream<Zeitraum> stream(Zeitraum zeitraum) {
+
+		return StreamSupport.stream(spliterator(zeitraum), false);
+	}
+
+	/**
+	 * @param epochDay Tage seit dem 1.1.1970
+	 * @return Nummer der Zelle, in welcher der Tag liegt
+	 */
+	abstract int zelle(int epochDay);
+
+	/**
+	 * @return erster Tag der Zelle als Tage seit dem 1.1.1970
+	 */
+	abstract int beginn(int zelle);
+
+	private static final class Monate extends ZeitraumRaster {
+
+		private final int anzahlMonate;
+		/**
+		 * Monat (0-11), in dem eine Zelle beginnt.
+		 */
+		private final int ersterMonat;
+
+		Monate(int anzahlMonate, int ersterMonat) {
+
+			this.anzahlMonate = anzahlMonate;
+			this.ersterMonat = ersterMonat;
+		}
+
+		@Override
+		int zelle(int epochDay) {
+
+			int monat = EpochDays.getYear(epochDay) * 12 + EpochDays.getMonth(epochDay) - 1;
+			return Math.floorDiv(monat - ersterMonat, anzahlMonate);
+		}
+
+		@Override
+		int beginn(int zelle) {
+
+			int monat = zelle * anzahlMonate + ersterMonat;
+			return EpochDays.of(Math.floorDiv(monat, 12), Math.floorMod(monat, 12) + 1, 1);
+		}
+	}
+
+	private static final class Tage extends ZeitraumRaster {
+
+		private final int anzahlTage;
+		private final int anker;
+
+		Tage(int anzahlTage, int anker) {
+
+			this.anzahlTage = anzahlTage;
+			this.anker = anker;
+		}
+
+		@Override
+		int zelle(int epochDay) {
+			return Math.floorDiv(epochDay - anker, anzahlTage);
+		}
+
+		@Override
+		int beginn(int zelle) {
+			return anker + zelle * anzahlTage;
+		}
+	}
+
+	/**
+	 * Die Teile fuer die Zellen {@code [zelle, ende)}, aufgeteilt wird nach Zellen.
+	 */
+	private final class Teile implements Spliterator<Zeitraum> {
+
+		private final int von;
+		private final int bis;
+		private int zelle;
+		private final int ende;
+
+		Teile(int von, int bis, int zelle, int ende) {
+
+			this.von = von;
+			this.bis = bis;
+			this.zelle = zelle;
+			this.ende = ende;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Zeitraum> action) {
+
+			if (zelle >= ende) {
+				return false;
+			}
+			action.accept(teil(zelle++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Zeitraum> action) {
+
+			// die Grenze zwischen zwei Zellen nur einmal berechnen
+			int beginn = Math.max(von, beginn(zelle));
+			for (; zelle < ende; zelle++) {
+				int naechster = beginn(zelle + 1);
+				action.accept(new Zeitraum(beginn, Math.min(bis, naechster - 1)));
+				beginn = naechster;
+			}
+		}
+
+		private Zeitraum teil(int index) {
+			return new Zeitraum(Math.max(von, beginn(index)), Math.min(bis, beginn(index + 1) - 1));
+		}
+
+		@Override
+		public Spliterator<Zeitraum> trySplit() {
+
+			int mitte = zelle + ((ende - zelle) >>> 1);
+			if (mitte <= zelle) {
+				return null;
+			}
+			Teile vorne = new Teile(von, bis, zelle, mitte);
+			zelle = mitte;
+			return vorne;
+		}
+
+		@Override
+		public long estimateSize() {
+			return ende - zelle;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+		}
+	}
+}
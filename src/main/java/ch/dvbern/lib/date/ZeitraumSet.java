@@ -0,0 +1,351 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Unveraenderliche Menge von Tagen, dargestellt als sortierte, disjunkte {@link Zeitraum}e. Zeitraeume, die sich
+ * ueberschneiden oder direkt aneinander anschliessen, werden zu einem Zeitraum zusammengefasst, die Darstellung ist
+ * also eindeutig und {@link #equals(Object)} vergleicht die enthaltenen Tage.
+ * <p>
+ * Die Zeitraeume sind als Tage seit dem 1.1.1970 paarweise ({@code von, bis}) in einem sortierten {@code int[]}
+ * gespeichert. {@link #union(ZeitraumSet)}, {@link #intersect(ZeitraumSet)} und {@link #subtract(ZeitraumSet)}
+ * laufen in einem Durchgang ueber beide Mengen (O(n + m)) und erzeugen keine Zwischen-Objekte,
+ * {@link #contains(Day)} sucht binaer.
+ */
+public final class ZeitraumSet {
+
+	private static final ZeitraumSet EMPTY = new ZeitraumSet(new int[0]);
+
+	/**
+	 * {@code von} und {@code bis} (beide inklusive) jedes Zeitraumes, aufsteigend sortiert und mit mindestens einem
+	 * Tag Abstand zwischen zwei Zeitraeumen.
+	 */
+	private final int[] tage;
+
+	private ZeitraumSet(int[] tage) {
+		this.tage = tage;
+	}
+
+	/**
+	 * @return die leere Menge
+	 */
+	public static ZeitraumSet empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * @return die Tage aller Zeitraeume, ueberschneidende und aneinander anschliessende zusammengefasst
+	 */
+	public static ZeitraumSet of(Zeitraum... zeitraeume) {
+
+		if (zeitraeume == null) {
+			throw new IllegalArgumentException("zeitraeume is null");
+		}
+		return of(Arrays.asList(zeitraeume));
+	}
+
+	/**
+	 * @return die Tage aller Zeitraeume, ueberschneidende und aneinander anschliessende zusammengefasst
+	 */
+	public static ZeitraumSet of(Collection<Zeitraum> zeitraeume) {
+
+		if (zeitraeume == null) {
+			throw new IllegalArgumentException("zeitraeume is null");
+		}
+		// von << 32 | bis, sortiert nach von
+		long[] sortiert = new long[zeitraeume.size()];
+		int anzahl = 0;
+		for (Zeitraum zeitraum : zeitraeume) {
+			if (zeitraum == null) {
+				throw new IllegalArgumentException("zeitraeume enthaelt null");
+			}
+			sortiert[anzahl++] = (long) zeitraum.getVonEpochDay() << 32 | (zeitraum.getBisEpochDay() & 0xFFFFFFFFL);
+		}
+		Arrays.sort(sortiert, 0, anzahl);
+		Builder builder = new Builder(anzahl);
+		for (int i = 0; i < anzahl; i++) {
+			builder.add((int) (sortiert[i] >> 32), (int) sortiert[i]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return Anzahl (zusammengefasster) Zeitraeume
+	 */
+	public int size() {
+		return tage.length >> 1;
+	}
+
+	public boolean isEmpty() {
+		return tage.length == 0;
+	}
+
+	/**
+	 * @return der {@code index}-te Zeitraum in aufsteigender Reihenfolge
+	 */
+	public Zeitraum get(int index) {
+
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("index: " + index + ", size: " + size());
+		}
+		return new Zeitraum(tage[2 * index], tage[2 * index + 1]);
+	}
+
+	/**
+	 * @return die Zeitraeume in aufsteigender Reihenfolge als neue Liste
+	 */
+	public List<Zeitraum> toList() {
+
+		List<Zeitraum> result = new ArrayList<>(size());
+		for (int i = 0; i < tage.length; i += 2) {
+			result.add(new Zeitraum(tage[i], tage[i + 1]));
+		}
+		return result;
+	}
+
+	/**
+	 * @return Anzahl Tage in allen Zeitraeumen
+	 */
+	public long getAnzahlTage() {
+
+		long anzahl = 0;
+		for (int i = 0; i < tage.length; i += 2) {
+			anzahl += (long) tage[i + 1] - tage[i] + 1;
+		}
+		return anzahl;
+	}
+
+	/**
+	 * @return true, wenn der Tag in einem der Zeitraeume liegt
+	 */
+	public boolean contains(Day day) {
+
+		if (day == null) {
+			throw new IllegalArgumentException("day is null");
+		}
+		int index = indexOf(day.getEpochDay());
+		return index >= 0 && day.getEpochDay() <= tage[2 * index + 1];
+	}
+
+	/**
+	 * @return true, wenn alle Tage von {@code zeitraum} in der Menge liegen
+	 */
+	public boolean contains(Zeitraum zeitraum) {
+
+		if (zeitraum == null) {
+			throw new IllegalArgumentException("zeitraum is null");
+		}
+		// die Zeitraeume sind zusammengefasst, der ganze Zeitraum muss also in einem einzigen liegen
+		int index = indexOf(zeitraum.getVonEpochDay());
+		return index >= 0 && zeitraum.getBisEpochDay() <= tage[2 * index + 1];
+	}
+
+	/**
+	 * @return Index des letzten Zeitraumes mit {@code von <= tag}, -1 wenn es keinen gibt
+	 */
+	private int indexOf(int tag) {
+
+		int low = 0;
+		int high = size() - 1;
+		while (low <= high) {
+			int mitte = (low + high) >>> 1;
+			if (tage[2 * mitte] <= tag) {
+				low = mitte + 1;
+			} else {
+				high = mitte - 1;
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * @return alle Tage, die in dieser oder in der anderen Menge liegen
+	 */
+	public ZeitraumSet union(ZeitraumSet other) {
+
+		checkNotNull(other);
+		int[] a = tage;
+		int[] b = other.tage;
+		if (b.length == 0) {
+			return this;
+		}
+		if (a.length == 0) {
+			return other;
+		}
+		Builder builder = new Builder((a.length + b.length) >> 1);
+		int i = 0;
+		int j = 0;
+		while (i < a.length || j < b.length) {
+			if (j == b.length || (i < a.length && a[i] <= b[j])) {
+				builder.add(a[i], a[i + 1]);
+				i += 2;
+			} else {
+				builder.add(b[j], b[j + 1]);
+				j += 2;
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return alle Tage, die in dieser und in der anderen Menge liegen
+	 */
+	public ZeitraumSet intersect(ZeitraumSet other) {
+
+		checkNotNull(other);
+		int[] a = tage;
+		int[] b = other.tage;
+		Builder builder = new Builder(Math.min(a.length, b.length));
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			int von = Math.max(a[i], b[j]);
+			int bis = Math.min(a[i + 1], b[j + 1]);
+			if (von <= bis) {
+				builder.add(von, bis);
+			}
+			// der Zeitraum, der zuerst endet, kann sich mit keinem weiteren der anderen Menge mehr ueberschneiden
+			if (a[i + 1] < b[j + 1]) {
+				i += 2;
+			} else {
+				j += 2;
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return alle Tage dieser Menge, die nicht in der anderen Menge liegen
+	 */
+	public ZeitraumSet subtract(ZeitraumSet other) {
+
+		checkNotNull(other);
+		int[] a = tage;
+		int[] b = other.tage;
+		if (a.length == 0 || b.length == 0) {
+			return this;
+		}
+		Builder builder = new Builder(size() + other.size());
+		int j = 0;
+		for (int i = 0; i < a.length; i += 2) {
+			int von = a[i];
+			int bis = a[i + 1];
+			// Zeitraeume der anderen Menge, die vor diesem enden, betreffen auch alle weiteren nicht mehr
+			while (j < b.length && b[j + 1] < von) {
+				j += 2;
+			}
+			boolean rest = true;
+			for (int k = j; k < b.length && b[k] <= bis; k += 2) {
+				if (b[k] > von) {
+					builder.add(von, b[k] - 1);
+				}
+				if (b[k + 1] >= bis) {
+					rest = false;
+					break;
+				}
+				von = b[k + 1] + 1;
+				j = k + 2;
+			}
+			if (rest) {
+				builder.add(von, bis);
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return alle Tage von {@code within}, die nicht in dieser Menge liegen
+	 */
+	public ZeitraumSet complement(Zeitraum within) {
+
+		if (within == null) {
+			throw new IllegalArgumentException("within is null");
+		}
+		return of(within).subtract(this);
+	}
+
+	private static void checkNotNull(ZeitraumSet other) {
+
+		if (other == null) {
+			throw new IllegalArgumentException("other is null");
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ZeitraumSet)) {
+			return false;
+		}
+		return Arrays.equals(tage, ((ZeitraumSet) obj).tage);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(tage);
+	}
+
+	/**
+	 * @return die Zeitraeume wie {@link List#toString()} von {@link #toList()}
+	 */
+	@Override
+	public String toString() {
+		return toList().toString();
+	}
+
+	/**
+	 * Sammelt Zeitraeume aufsteigend nach {@code von} und fasst dabei ueberschneidende und aneinander anschliessende
+	 * zusammen.
+	 */
+	private static final class Builder {
+
+		private int[] tage;
+		private int laenge;
+
+		Builder(int anzahlZeitraeume) {
+			this.tage = new int[Math.max(2, 2 * anzahlZeitraeume)];
+		}
+
+		void add(int von, int bis) {
+
+			if (laenge > 0 && von <= (long) tage[laenge - 1] + 1) {
+				tage[laenge - 1] = Math.max(tage[laenge - 1], bis);
+				return;
+			}
+			if (laenge == tage.length) {
+				tage = Arrays.copyOf(tage, 2 * laenge);
+			}
+			tage[laenge++] = von;
+			tage[laenge++] = bis;
+		}
+
+		ZeitraumSet build() {
+
+			if (laenge == 0) {
+				return EMPTY;
+			}
+			return new ZeitraumSet(laenge == tage.length ? tage : Arrays.copyOf(tage, laenge));
+		}
+	}
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static ch.dvbern.lib.date.EpochDays.MILLIS_PER_DAY;
+
+/**
+ * Zeitzonen-Offsets als sortierte Tabelle der Umstellungszeitpunkte (Europe/Zurich: zwei pro Jahr). Die Abfrage
+ * {@link #getOffset(long)} ist eine binaere Suche in einem kleinen {@code long[]}, ohne {@link ZoneRules}- oder
+ * {@link java.util.Calendar}-Objekte.
+ * <p>
+ * Die Tabelle reicht bis ins Jahr {@value #BIS_JAHR}. Ausserhalb der Tabelle wird die Zeitzone direkt gefragt. Wird
+ * der Cache fuer eine {@link TimeZone} erstellt, wird jeder Eintrag gegen diese geprueft; die Resultate sind also
+ * immer dieselben wie mit {@link TimeZone#getOffset(long)} bzw. {@link ZoneRules#getOffset(Instant)}.
+ * <p>
+ * Instanzen sind unveraenderlich und werden pro Zeitzone nur einmal erstellt.
+ */
+public final class ZoneOffsetCache {
+
+	/**
+	 * Letztes Jahr mit Umstellungen in der Tabelle.
+	 */
+	static final int BIS_JAHR = 2200;
+
+	private static final ConcurrentMap<ZoneId, ZoneOffsetCache> ZONE_IDS = new ConcurrentHashMap<>();
+	private static final ConcurrentMap<String, ZoneOffsetCache> TIME_ZONES = new ConcurrentHashMap<>();
+
+	/**
+	 * Klasse der TimeZones aus der Zeitzonen-Datenbank des JDK. Nur fuer diese werden Umstellungen aus den
+	 * {@link ZoneRules} uebernommen.
+	 */
+	private static final Class<?> TZDB_TIME_ZONE = TimeZone.getTimeZone("Europe/Zurich").getClass();
+
+	private static volatile ZoneOffsetCache defaultCache;
+
+	/**
+	 * Umstellungszeitpunkte in Millis, aufsteigend. Zwischen {@code umstellungen[i]} (inklusive) und
+	 * {@code umstellungen[i + 1]} (exklusive) gilt {@code offsets[i]}.
+	 */
+	private final long[] umstellungen;
+	private final int[] offsets;
+
+	private final ZoneRules rules;
+	private final TimeZone timeZone;
+
+	private ZoneOffsetCache(long[] umstellungen, int[] offsets, ZoneRules rules, TimeZone timeZone) {
+
+		this.umstellungen = umstellungen;
+		this.offsets = offsets;
+		this.rules = rules;
+		this.timeZone = timeZone;
+	}
+
+	/**
+	 * @return der Cache fuer die Zeitzone
+	 */
+	public static ZoneOffsetCache of(ZoneId zone) {
+
+		if (zone == null) {
+			throw new IllegalArgumentException("zone is null");
+		}
+		ZoneOffsetCache cache = ZONE_IDS.get(zone);
+		return cache != null ? cache : ZONE_IDS.computeIfAbsent(zone, z -> create(z.getRules(), null));
+	}
+
+	/**
+	 * @return der Cache fuer die Zeitzone. Ist {@code zone} keine Zeitzone aus der Datenbank des JDK (z.B. eine
+	 * {@link java.util.SimpleTimeZone} mit eigenen Regeln), wird immer {@code zone} selbst gefragt.
+	 */
+	public static ZoneOffsetCache of(TimeZone zone) {
+
+		if (zone == null) {
+			throw new IllegalArgumentException("zone is null");
+		}
+		if (zone.getClass() != TZDB_TIME_ZONE) {
+			return new ZoneOffsetCache(new long[0], new int[0], null, (TimeZone) zone.clone());
+		}
+		ZoneOffsetCache cache = TIME_ZONES.get(zone.getID());
+		if (cache == null) {
+			cache = TIME_ZONES.computeIfAbsent(zone.getID(), id -> create((TimeZone) zone.clone()));
+		}
+		return cache.timeZone.hasSameRules(zone) ? cache : create((TimeZone) zone.clone());
+	}
+
+	/**
+	 * @return der Cache fuer die aktuelle Default-Zeitzone ({@link TimeZone#getDefault()})
+	 */
+	public static ZoneOffsetCache ofDefault() {
+
+		TimeZone zone = TimeZone.getDefault();
+		ZoneOffsetCache cache = defaultCache;
+		if (cache == null || !cache.timeZone.getID().equals(zone.getID()) || !cache.timeZone.hasSameRules(zone)) {
+			cache = of(zone);
+			defaultCache = cache;
+		}
+		return cache;
+	}
+
+	private static ZoneOffsetCache create(TimeZone zone) {
+
+		ZoneRules rules;
+		try {
+			rules = zone.toZoneId().getRules();
+		} catch (DateTimeException e) {
+			return new ZoneOffsetCache(new long[0], new int[0], null, zone);
+		}
+		ZoneOffsetCache kandidat = create(rules, zone);
+		// nur der Teil am Ende der Tabelle, der mit der TimeZone uebereinstimmt, wird verwendet
+		long[] umstellungen = kandidat.umstellungen;
+		int[] offsets = kandidat.offsets;
+		int erster = offsets.length;
+		while (erster > 0) {
+			long von = Math.max(umstellungen[erster - 1], Long.MIN_VALUE + 1);
+			long bis = Math.min(umstellungen[erster], Long.MAX_VALUE - 1);
+			int offset = offsets[erster - 1];
+			if (zone.getOffset(von) != offset || zone.getOffset(bis - 1) != offset) {
+				break;
+			}
+			erster--;
+		}
+		return new ZoneOffsetCache(Arrays.copyOfRange(umstellungen, erster, umstellungen.length),
+			Arrays.copyOfRange(offsets, erster, offsets.length), null, zone);
+	}
+
+	private static ZoneOffsetCache create(ZoneRules rules, TimeZone timeZone) {
+
+		long ende = LocalDateTime.of(BIS_JAHR + 1, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC) * 1000;
+		long[] umstellungen = new long[16];
+		int[] offsets = new int[16];
+		int anzahl = 0;
+		umstellungen[anzahl] = Long.MIN_VALUE;
+		ZoneOffsetTransition transition = rules.nextTransition(Instant.MIN);
+		offsets[anzahl++] = (transition == null ? rules.getOffset(Instant.EPOCH) : transition.getOffsetBefore())
+			.getTotalSeconds() * 1000;
+		while (transition != null && transition.getInstant().toEpochMilli() < ende) {
+			if (anzahl == umstellungen.length) {
+				umstellungen = Arrays.copyOf(umstellungen, anzahl * 2);
+				offsets = Arrays.copyOf(offsets, anzahl * 2);
+			}
+			umstellungen[anzahl] = transition.getInstant().toEpochMilli();
+			offsets[anzahl++] = transition.getOffsetAfter().getTotalSeconds() * 1000;
+			transition = rules.nextTransition(transition.getInstant());
+		}
+		// Ende der Tabelle: ohne weitere Umstellungen gilt der letzte Offset fuer immer
+		long[] grenzen = Arrays.copyOf(umstellungen, anzahl + 1);
+		grenzen[anzahl] = transition == null ? Long.MAX_VALUE : ende;
+		return new ZoneOffsetCache(grenzen, Arrays.copyOf(offsets, anzahl), rules, timeZone);
+	}
+
+	/**
+	 * @return der Offset zu UTC in Millis zum Zeitpunkt {@code epochMillis}
+	 */
+	public int getOffset(long epochMillis) {
+
+		long[] grenzen = umstellungen;
+		int anzahl = offsets.length;
+		if (anzahl == 0 || epochMillis < grenzen[0] || epochMillis >= grenzen[anzahl]) {
+			return ausserhalb(epochMillis);
+		}
+		int low = 0;
+		int high = anzahl - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (grenzen[mid] <= epochMillis) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return offsets[low];
+	}
+
+	private int ausserhalb(long epochMillis) {
+
+		if (timeZone != null) {
+			return timeZone.getOffset(epochMillis);
+		}
+		return rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds() * 1000;
+	}
+
+	/**
+	 * @return die lokale Wanduhrzeit als Millis seit dem 1.1.1970 00:00 (ohne Zeitzone)
+	 */
+	public long toWall(long epochMillis) {
+
+		return epochMillis + getOffset(epochMillis);
+	}
+
+	/**
+	 * @return der Kalendertag (Tage seit dem 1.1.1970), auf den der Zeitpunkt in dieser Zeitzone faellt
+	 */
+	public int toEpochDay(long epochMillis) {
+
+		return (int) Math.floorDiv(toWall(epochMillis), MILLIS_PER_DAY);
+	}
+
+	/**
+	 * @return Anzahl Umstellungen in der Tabelle (fuer Tests)
+	 */
+	int getTableSize() {
+
+		return offsets.length;
+	}
+}
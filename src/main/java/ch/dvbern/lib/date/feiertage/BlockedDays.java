@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date.feiertage;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.RandomAccess;
+
+import ch.dvbern.lib.date.EpochDays;
+
+/**
+ * Unveraenderliche Menge von Sperrtagen, d.h. applikationsspezifischen Tagen, die wie Feiertage behandelt werden.
+ * <p>
+ * Die Tage werden einmal in ein sortiertes {@code int[]} von Tagen seit dem 1.1.1970 (siehe {@link EpochDays})
+ * umgewandelt. Liegen die Tage nahe beieinander, wird zusaetzlich eine Bitmap gefuehrt, womit eine Abfrage
+ * {@link #contains(int)} O(1) kostet, sonst O(log n).
+ * <p>
+ * Als {@code List<Date>} (Mitternacht in der Default-Zeitzone, sortiert, ohne Duplikate) kann eine Instanz direkt
+ * allen {@code sperrTage}-Methoden von {@link FeiertageHelper} uebergeben werden. Diese muessen die Liste dann nicht
+ * bei jedem Aufruf neu bereinigen.
+ * <p>
+ * {@link #contains(Object)}, {@link #indexOf(Object)} und {@link #lastIndexOf(Object)} vergleichen nur den Tag
+ * (Default-Zeitzone), die Zeit des Datums wird ignoriert. {@link #equals(Object)} und {@link #hashCode()} folgen
+ * dem Vertrag von {@link java.util.List} und vergleichen die Daten von {@link #get(int)}, also Mitternacht. Jedes
+ * {@link #get(int)} und damit auch das Iterieren erzeugt ein neues {@link Date}, wer nur die Tage braucht, nimmt
+ * {@link #contains(int)} oder {@link #toEpochDays()}.
+ */
+public final class BlockedDays extends AbstractList<Date> implements RandomAccess {
+
+	private static final BlockedDays NONE = new BlockedDays(new int[0]);
+
+	/**
+	 * Die Bitmap wird nur gefuehrt, wenn sie hoechstens so viele Worte wie dieser Wert (bzw. 4 Worte pro Tag) braucht.
+	 */
+	private static final int MAX_BITMAP_WORTE = 1024;
+
+	private final int[] tage;
+	private final int ersterTag;
+	private final long[] bitmap;
+
+	private BlockedDays(int[] tage) {
+
+		this.tage = tage;
+		this.ersterTag = tage.length == 0 ? 0 : tage[0];
+		long spanne = tage.length == 0 ? 0 : (long) tage[tage.length - 1] - ersterTag + 1;
+		long worte = (spanne + 63) >>> 6;
+		if (tage.length > 0 && worte <= Math.max(MAX_BITMAP_WORTE, 4L * tage.length)) {
+			bitmap = new long[(int) worte];
+			for (int tag : tage) {
+				int index = tag - ersterTag;
+				bitmap[index >>> 6] |= 1L << index;
+			}
+		} else {
+			bitmap = null;
+		}
+	}
+
+	/**
+	 * @return eine leere Menge
+	 */
+	public static BlockedDays none() {
+		return NONE;
+	}
+
+	/**
+	 * Die Zeit der Daten wird ignoriert, doppelte Eintraege werden eliminiert.
+	 *
+	 * @param sperrTage Daten, massgebend ist der Tag in der Default-Zeitzone
+	 */
+	public static BlockedDays of(Collection<? extends Date> sperrTage) {
+
+		if (sperrTage == null) {
+			throw new IllegalArgumentException("sperrTage is null");
+		}
+		if (sperrTage instanceof BlockedDays) {
+			return (BlockedDays) sperrTage;
+		}
+		int[] tage = new int[sperrTage.size()];
+		int i = 0;
+		for (Date tag : sperrTage) {
+			tage[i++] = FeiertageHelper.epochDayOf(tag);
+		}
+		return ofSorted(tage);
+	}
+
+	/**
+	 * Doppelte Eintraege werden eliminiert.
+	 *
+	 * @param epochDays Tage seit dem 1.1.1970, beliebige Reihenfolge
+	 */
+	public static BlockedDays ofEpochDays(int... epochDays) {
+
+		return ofSorted(epochDays.clone());
+	}
+
+	private static BlockedDays ofSorted(int[] tage) {
+
+		if (tage.length == 0) {
+			return NONE;
+		}
+		Arrays.sort(tage);
+		int anzahl = 0;
+		for (int tag : tage) {
+			if (anzahl == 0 || tage[anzahl - 1] != tag) {
+				tage[anzahl++] = tag;
+			}
+		}
+		return new BlockedDays(anzahl == tage.length ? tage : Arrays.copyOf(tage, anzahl));
+	}
+
+	/**
+	 * @param epochDay Tage seit dem 1.1.1970
+	 * @return {@code true}, wenn der Tag ein Sperrtag ist
+	 */
+	public boolean contains(int epochDay) {
+
+		if (bitmap != null) {
+			long index = (long) epochDay - ersterTag;
+			return index >= 0 && index < ((long) bitmap.length << 6)
+				&& (bitmap[(int) (index >>> 6)] & (1L << index)) != 0;
+		}
+		return Arrays.binarySearch(tage, epochDay) >= 0;
+	}
+
+	/**
+	 * @return {@code true}, wenn der Tag des Datums (in der Default-Zeitzone) ein Sperrtag ist
+	 */
+	@Override
+	public boolean contains(Object o) {
+
+		return o instanceof Date && contains(FeiertageHelper.epochDayOf((Date) o));
+	}
+
+	/**
+	 * @return Index des Sperrtages, auf den der Tag des Datums (in der Default-Zeitzone) faellt, sonst -1
+	 */
+	@Override
+	public int indexOf(Object o) {
+
+		if (!(o instanceof Date)) {
+			return -1;
+		}
+		int index = Arrays.binarySearch(tage, FeiertageHelper.epochDayOf((Date) o));
+		return index < 0 ? -1 : index;
+	}
+
+	/**
+	 * Die Sperrtage sind eindeutig, also gleich {@link #indexOf(Object)}.
+	 */
+	@Override
+	public int lastIndexOf(Object o) {
+
+		return indexOf(o);
+	}
+
+	/**
+	 * Wie {@link java.util.List#equals(Object)}. Zwei BlockedDays werden ohne Umweg ueber {@link Date} verglichen.
+	 */
+	@Override
+	public boolean equals(Object o) {
+
+		if (o instanceof BlockedDays) {
+			return Arrays.equals(tage, ((BlockedDays) o).tage);
+		}
+		return super.equals(o);
+	}
+
+	/**
+	 * @return die Sperrtage als sortierte Tage seit dem 1.1.1970 (Kopie)
+	 */
+	public int[] toEpochDays() {
+
+		return tage.clone();
+	}
+
+	/**
+	 * @return Index des ersten Sperrtages, der gleich oder nach {@code epochDay} ist, bzw. {@link #size()}
+	 */
+	int indexOfFirstFrom(int epochDay) {
+
+		int index = Arrays.binarySearch(tage, epochDay);
+		return index < 0 ? -index - 1 : index;
+	}
+
+	/**
+	 * @return der Sperrtag mit dem gegebenen Index als Tage seit dem 1.1.1970
+	 */
+	int getEpochDay(int index) {
+
+		return tage[index];
+	}
+
+	/**
+	 * @return ein neues Datum (Mitternacht in der Default-Zeitzone) fuer den Sperrtag mit dem gegebenen Index
+	 */
+	@Override
+	public Date get(int index) {
+
+		return new Date(FeiertageHelper.millisOf(tage[index]));
+	}
+
+	@Override
+	public int size() {
+
+		return tage.length;
+	}
+}
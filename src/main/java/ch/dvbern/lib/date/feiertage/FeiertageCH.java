@@ -16,72 +16,142 @@
 package ch.dvbern.lib.date.feiertage;
 
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+
+import ch.dvbern.lib.date.EpochDays;
+
+import static ch.dvbern.lib.date.feiertage.FeiertageHelper.MAX_YEAR;
+import static ch.dvbern.lib.date.feiertage.FeiertageHelper.MIN_YEAR;
 
 /**
  * Feiertage Schweiz pro Jahr. Berechnet Feiertage eines Jahres und speichert
- * die gewonnenen Informationen in einer Vector-Collection von
- * Feiertag-Objekten.
+ * sie als unveraenderliche {@link Holiday}-Objekte, abfragbar per Feiertag
+ * (EnumMap) oder per Tag im Jahr.
+ * <p>
+ * Nach der Konstruktion unveraenderlich und darum thread-safe.
  */
-class FeiertageCH {
+final class FeiertageCH {
+
+	/**
+	 * Reihenfolge der Feiertage in {@link #epochDays}, {@link #holidays} und {@link #feiertage}.
+	 */
+	private static final FeiertagSchweiz[] REIHENFOLGE = {
+		FeiertagSchweiz.KARFREITAG,
+		FeiertagSchweiz.OSTERN,
+		FeiertagSchweiz.OSTERMONTAG,
+		FeiertagSchweiz.AUFFAHRT,
+		FeiertagSchweiz.PFINGSTEN,
+		FeiertagSchweiz.PFINGSTMONTAG,
+		FeiertagSchweiz.NEUJAHRSTAG,
+		FeiertagSchweiz.BECHTOLDSTAG,
+		FeiertagSchweiz.NATIONALFEIERTAG,
+		FeiertagSchweiz.WEIHNACHTEN,
+		FeiertagSchweiz.STEPHANSTAG
+	};
+
+	/**
+	 * Ostersonntag als Tag im Jahr (0 = 1. Januar), Index ist {@code year - MIN_YEAR}. Die Tabelle wird einmal beim
+	 * Laden der Klasse mit Ganzzahl-Arithmetik befuellt, danach kostet Ostern fuer ein neues Jahr einen Array-Zugriff.
+	 */
+	private static final short[] OSTERN = new short[MAX_YEAR - MIN_YEAR + 1];
+
+	static {
+		for (int year = MIN_YEAR; year <= MAX_YEAR; year++) {
+			OSTERN[year - MIN_YEAR] = (short) (getOudinEastern(year) - EpochDays.of(year, 1, 1));
+		}
+	}
+
+	/**
+	 * Position eines Feiertages in {@link #REIHENFOLGE}, Index ist {@link FeiertagSchweiz#ordinal()}.
+	 */
+	private static final int[] POSITION = new int[FeiertagSchweiz.values().length];
 
-	private final List<FeiertagCH> feiertage = new ArrayList<>(10);
+	static {
+		for (int i = 0; i < REIHENFOLGE.length; i++) {
+			POSITION[REIHENFOLGE[i].ordinal()] = i;
+		}
+	}
+
+	private final int ersterTag;
+
+	/**
+	 * Die Feiertage als Tage seit dem 1.1.1970, in der {@link #REIHENFOLGE}.
+	 */
+	private final int[] epochDays;
+
+	private final List<Holiday> holidays;
+	private final Map<FeiertagSchweiz, Holiday> holidaysNachFeiertag;
+
+	/**
+	 * Position in {@link #holidays} pro Tag im Jahr (0 = 1. Januar), -1 wenn kein Feiertag.
+	 */
+	private final byte[] positionNachTag;
+
+	/**
+	 * Die {@link FeiertagCH} in der {@link #REIHENFOLGE}. Erst beim ersten Zugriff erstellt, mit denselben
+	 * Daten wie {@link FeiertageHelper#millisOf(int)}. Mehrfaches Erstellen bei gleichzeitigem Zugriff ist harmlos.
+	 */
+	private volatile List<FeiertagCH> feiertage;
 
 	/**
 	 * constructor
 	 */
 	FeiertageCH(int year) {
 
-		// Bewegliche Feiertagen
-		// Ostern (sonntag) vorab berechnen
-		GregorianCalendar eastern = getOudinEastern(year);
-		GregorianCalendar tmp;
-
-		tmp = (GregorianCalendar) eastern.clone();
-		tmp.add(Calendar.DAY_OF_MONTH, -2);
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.KARFREITAG, tmp
-			.getTimeInMillis()));
-
-		tmp = (GregorianCalendar) eastern.clone();
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.OSTERN, tmp
-			.getTimeInMillis()));
-		tmp.add(Calendar.DAY_OF_MONTH, +1);
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.OSTERMONTAG, tmp
-			.getTimeInMillis()));
-
-		tmp = (GregorianCalendar) eastern.clone();
-		tmp.add(Calendar.DAY_OF_MONTH, +39);
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.AUFFAHRT, tmp
-			.getTimeInMillis()));
-
-		tmp = (GregorianCalendar) eastern.clone();
-		tmp.add(Calendar.DAY_OF_MONTH, +49);
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.PFINGSTEN, tmp
-			.getTimeInMillis()));
-		tmp.add(Calendar.DAY_OF_MONTH, +1);
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.PFINGSTMONTAG, tmp
-			.getTimeInMillis()));
-
-		// Fixe Feiertagen
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.NEUJAHRSTAG,
-			(new GregorianCalendar(year, 0, 1)).getTimeInMillis()));
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.BECHTOLDSTAG,
-			(new GregorianCalendar(year, 0, 2)).getTimeInMillis()));
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.NATIONALFEIERTAG,
-			(new GregorianCalendar(year, 7, 1)).getTimeInMillis()));
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.WEIHNACHTEN,
-			(new GregorianCalendar(year, 11, 25)).getTimeInMillis()));
-		feiertage.add(new FeiertagCH(FeiertagSchweiz.STEPHANSTAG,
-			(new GregorianCalendar(year, 11, 26)).getTimeInMillis()));
+		this.ersterTag = EpochDays.of(year, 1, 1);
+		int ostern = ersterTag + OSTERN[year - MIN_YEAR];
+
+		epochDays = new int[] {
+			// Bewegliche Feiertagen: Karfreitag, Ostern, Ostermontag, Auffahrt, Pfingsten, Pfingstmontag
+			ostern - 2, ostern, ostern + 1, ostern + 39, ostern + 49, ostern + 50,
+			// Fixe Feiertagen
+			ersterTag, ersterTag + 1, EpochDays.of(year, 8, 1), EpochDays.of(year, 12, 25), EpochDays.of(year, 12, 26)
+		};
+
+		Holiday[] liste = new Holiday[epochDays.length];
+		holidaysNachFeiertag = new EnumMap<>(FeiertagSchweiz.class);
+		positionNachTag = new byte[EpochDays.lengthOfYear(year)];
+		Arrays.fill(positionNachTag, (byte) -1);
+		for (int i = 0; i < epochDays.length; i++) {
+			liste[i] = new Holiday(REIHENFOLGE[i], epochDays[i]);
+			holidaysNachFeiertag.put(REIHENFOLGE[i], liste[i]);
+			positionNachTag[epochDays[i] - ersterTag] = (byte) i;
+		}
+		holidays = Collections.unmodifiableList(Arrays.asList(liste));
+	}
+
+	/**
+	 * Anzahl Feiertage des Jahres, die auf einen Werktag (Montag bis Freitag) fallen. Karfreitag, Ostermontag,
+	 * Auffahrt und Pfingstmontag fallen immer auf einen Werktag, Ostern und Pfingsten nie. Fuer die fixen Feiertage
+	 * entscheidet der Wochentag, darum muss Ostern dafuer nicht berechnet werden.
+	 */
+	static int getAnzahlFeiertageAnWerktagen(int year) {
+
+		int anzahl = 4;
+		anzahl += isWerktag(year, 1, 1) ? 1 : 0;
+		anzahl += isWerktag(year, 1, 2) ? 1 : 0;
+		anzahl += isWerktag(year, 8, 1) ? 1 : 0;
+		anzahl += isWerktag(year, 12, 25) ? 1 : 0;
+		anzahl += isWerktag(year, 12, 26) ? 1 : 0;
+		return anzahl;
+	}
+
+	private static boolean isWerktag(int year, int month, int dayOfMonth) {
+
+		return EpochDays.getDayOfWeek(EpochDays.of(year, month, dayOfMonth)) <= 5;
 	}
 
 	/**
 	 * Berechnung Ostersonntag nach Oudin. Source: Das Java Codebook. Dirk
 	 * Louis, Peter M�ller. Addison-Wesley
+	 *
+	 * @return Ostersonntag als Tage seit dem 1.1.1970
 	 */
-	private static GregorianCalendar getOudinEastern(int year) {
+	private static int getOudinEastern(int year) {
 
 		int c = year / 100;
 		int n = year - 19 * (year / 19);
@@ -95,7 +165,7 @@ class FeiertageCH {
 		int l = l3 - a2;
 		int month = 3 + (l + 40) / 44;
 		int day = l + 28 - 31 * (month / 4);
-		return new GregorianCalendar(year, month - 1, day);
+		return EpochDays.of(year, month, day);
 	}
 
 	/**
@@ -105,50 +175,62 @@ class FeiertageCH {
 	 */
 	FeiertagCH getFeiertag(FeiertagSchweiz feiertag) {
 
-		for (FeiertagCH tag : feiertage) {
-			if (tag.getFeiertag().equals(feiertag)) {
-				return tag;
+		return getFeiertagList().get(POSITION[feiertag.ordinal()]);
+	}
+
+	List<FeiertagCH> getFeiertage() {
+
+		return new ArrayList<>(getFeiertagList());
+	}
+
+	private List<FeiertagCH> getFeiertagList() {
+
+		List<FeiertagCH> result = feiertage;
+		if (result == null) {
+			List<FeiertagCH> liste = new ArrayList<>(epochDays.length);
+			for (int i = 0; i < epochDays.length; i++) {
+				liste.add(new FeiertagCH(REIHENFOLGE[i], FeiertageHelper.millisOf(epochDays[i])));
 			}
+			result = Collections.unmodifiableList(liste);
+			feiertage = result;
 		}
-		return null;
+		return result;
 	}
 
 	/**
-	 * Liefert das Feiertag-Objekt oder null zu einem Datum.
-	 *
-	 * @param date . Zeit muss auf 0 sein.
+	 * @return alle Feiertage des Jahres, unveraenderlich und geteilt
 	 */
-	FeiertagCH getFeiertag(GregorianCalendar date) {
+	List<Holiday> getHolidays() {
 
-		long millis = date.getTimeInMillis();
-		for (FeiertagCH tag : feiertage) {
-			if (tag.getTime() == millis) {
-				return tag;
-			}
-		}
-		return null;
+		return holidays;
 	}
 
 	/**
-	 * Stellt fest, ob das angegebene Datum auf einen gesetzlichen,
-	 * schweizerischen nationalen Feiertag f�llt
-	 *
-	 * @param date . Zeit muss auf 0 sein.
+	 * @return der Feiertag, nie null
 	 */
-	boolean isFeiertag(GregorianCalendar date) {
+	Holiday getHoliday(FeiertagSchweiz feiertag) {
 
-		long millis = date.getTimeInMillis();
-		for (FeiertagCH tag : feiertage) {
-			if (tag.getTime() == millis) {
-				return true;
-			}
+		return holidaysNachFeiertag.get(feiertag);
+	}
+
+	/**
+	 * @param epochDay Tage seit dem 1.1.1970
+	 * @return der Feiertag an diesem Tag oder null
+	 */
+	Holiday getHoliday(int epochDay) {
+
+		int tag = epochDay - ersterTag;
+		if (tag < 0 || tag >= positionNachTag.length || positionNachTag[tag] < 0) {
+			return null;
 		}
-		return false;
+		return holidays.get(positionNachTag[tag]);
 	}
 
-	@SuppressWarnings("unchecked")
-	List<FeiertagCH> getFeiertage() {
+	/**
+	 * @return die Feiertage als Tage seit dem 1.1.1970. Das Array darf nicht veraendert werden.
+	 */
+	int[] getEpochDays() {
 
-		return  new ArrayList<>(feiertage);
+		return epochDays;
 	}
 }
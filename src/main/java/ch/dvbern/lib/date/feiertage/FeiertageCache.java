@@ -0,0 +1,208 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date.feiertage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static ch.dvbern.lib.date.feiertage.FeiertageHelper.MAX_YEAR;
+import static ch.dvbern.lib.date.feiertage.FeiertageHelper.MIN_YEAR;
+import static ch.dvbern.lib.date.feiertage.FeiertageHelper.YEAR_NOT_IN_RANGE_MSG;
+
+/**
+ * Konfiguration und Statistik der Jahres-Caches von {@link FeiertageHelper} (Feiertage pro Jahr) und
+ * {@link WorkingDayCalendar} (Feiertag-Bits pro Jahr).
+ * <p>
+ * Standardmaessig ist der Cache unbegrenzt: jedes abgefragte Jahr bleibt geladen. Mit
+ * {@link #setMaxEntries(int)} wird die Anzahl Jahre pro Cache begrenzt, z.B. wenn Schleifen ueber historische
+ * Daten den Heap nicht fuellen sollen. Mit {@link #warmUp(int, int)} bzw. {@link #warmUpAsync(int, int, Executor)}
+ * wird ein Bereich beim Start geladen und vor dem Verdraengen geschuetzt, typischerweise das aktuelle Jahr +/- 5.
+ */
+public final class FeiertageCache {
+
+	/**
+	 * Wird nicht instanziert.
+	 */
+	private FeiertageCache() {
+	}
+
+	/**
+	 * Begrenzt die Anzahl geladener Jahre pro Cache. Sind bereits mehr Jahre geladen, werden die am laengsten
+	 * geladenen sofort verdraengt. Mit {@link #warmUp(int, int)} geladene Jahre zaehlen nicht zur Grenze.
+	 *
+	 * @param maxEntries maximale Anzahl Jahre, {@link Integer#MAX_VALUE} fuer unbegrenzt
+	 */
+	public static void setMaxEntries(int maxEntries) {
+
+		FeiertageHelper.getFeiertageCache().setMaxEntries(maxEntries);
+		WorkingDayCalendar.getInstance().getJahresCache().setMaxEntries(maxEntries);
+	}
+
+	/**
+	 * @return die maximale Anzahl Jahre pro Cache
+	 */
+	public static int getMaxEntries() {
+
+		return FeiertageHelper.getFeiertageCache().getMaxEntries();
+	}
+
+	/**
+	 * Laedt die Jahre {@code vonJahr} bis und mit {@code bisJahr} im aufrufenden Thread. Die Jahre werden nie
+	 * verdraengt.
+	 */
+	public static void warmUp(int vonJahr, int bisJahr) {
+
+		checkBereich(vonJahr, bisJahr);
+		WorkingDayCalendar calendar = WorkingDayCalendar.getInstance();
+		for (int year = vonJahr; year <= bisJahr; year++) {
+			FeiertageHelper.getFeiertageCache().pin(year);
+			calendar.getJahresCache().pin(year);
+		}
+	}
+
+	/**
+	 * Wie {@link #warmUp(int, int)}, aber mit dem gegebenen {@link Executor}, z.B. um den Start einer
+	 * Applikation nicht zu verzoegern.
+	 *
+	 * @return wird abgeschlossen, wenn alle Jahre geladen sind
+	 */
+	public static CompletableFuture<Void> warmUpAsync(int vonJahr, int bisJahr, Executor executor) {
+
+		checkBereich(vonJahr, bisJahr);
+		if (executor == null) {
+			throw new IllegalArgumentException("executor is null");
+		}
+		return CompletableFuture.runAsync(() -> warmUp(vonJahr, bisJahr), executor);
+	}
+
+	/**
+	 * Schaltet das Zaehlen der Treffer ({@link Statistics#getHitCount()}) ein oder aus. Standardmaessig aus, da
+	 * sonst jede Abfrage einen zwischen allen Threads geteilten Zaehler schreibt. Fehlzugriffe, Ladezeit und
+	 * Verdraengungen werden immer gezaehlt.
+	 */
+	public static void setRecordHits(boolean recordHits) {
+
+		FeiertageHelper.getFeiertageCache().setRecordHits(recordHits);
+		WorkingDayCalendar.getInstance().getJahresCache().setRecordHits(recordHits);
+	}
+
+	/**
+	 * @return ob die Treffer gezaehlt werden, siehe {@link #setRecordHits(boolean)}
+	 */
+	public static boolean isRecordHits() {
+
+		return FeiertageHelper.getFeiertageCache().isRecordHits();
+	}
+
+	/**
+	 * @return Statistik des Caches der Feiertage pro Jahr
+	 */
+	public static Statistics getStatistics() {
+
+		return FeiertageHelper.getFeiertageCache().getStatistics();
+	}
+
+	/**
+	 * @return Statistik des Caches der Feiertag-Bits pro Jahr von {@link WorkingDayCalendar}
+	 */
+	public static Statistics getCalendarStatistics() {
+
+		return WorkingDayCalendar.getInstance().getJahresCache().getStatistics();
+	}
+
+	/**
+	 * Leert beide Caches inkl. der mit {@link #warmUp(int, int)} geladenen Jahre und setzt die Statistik zurueck.
+	 * Die Grenze {@link #setMaxEntries(int)} und {@link #setRecordHits(boolean)} bleiben bestehen.
+	 */
+	public static void clear() {
+
+		FeiertageHelper.getFeiertageCache().clear();
+		WorkingDayCalendar.getInstance().getJahresCache().clear();
+	}
+
+	private static void checkBereich(int vonJahr, int bisJahr) {
+
+		if (vonJahr < MIN_YEAR || bisJahr > MAX_YEAR) {
+			throw new IllegalArgumentException(YEAR_NOT_IN_RANGE_MSG);
+		}
+		if (bisJahr < vonJahr) {
+			throw new IllegalArgumentException("bisJahr ist kleiner als vonJahr");
+		}
+	}
+
+	/**
+	 * Unveraenderliche Momentaufnahme der Statistik eines Caches.
+	 */
+	public static final class Statistics {
+
+		private final int size;
+		private final long hitCount;
+		private final long missCount;
+		private final long totalLoadTimeNanos;
+		private final long evictionCount;
+
+		Statistics(int size, long hitCount, long missCount, long totalLoadTimeNanos, long evictionCount) {
+
+			this.size = size;
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.totalLoadTimeNanos = totalLoadTimeNanos;
+			this.evictionCount = evictionCount;
+		}
+
+		/**
+		 * @return Anzahl aktuell geladener Jahre
+		 */
+		public int getSize() {
+			return size;
+		}
+
+		/**
+		 * @return Anzahl Zugriffe auf ein bereits geladenes Jahr, 0 solange {@link #setRecordHits(boolean)} nicht
+		 * eingeschaltet ist
+		 */
+		public long getHitCount() {
+			return hitCount;
+		}
+
+		/**
+		 * @return Anzahl Zugriffe, fuer die ein Jahr berechnet werden musste
+		 */
+		public long getMissCount() {
+			return missCount;
+		}
+
+		/**
+		 * @return gesamte Zeit fuer das Berechnen von Jahren in Nanosekunden
+		 */
+		public long getTotalLoadTimeNanos() {
+			return totalLoadTimeNanos;
+		}
+
+		/**
+		 * @return Anzahl verdraengter Jahre
+		 */
+		public long getEvictionCount() {
+			return evictionCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Statistics{size=" + size + ", hits=" + hitCount + ", misses=" + missCount
+				+ ", loadTimeNanos=" + totalLoadTimeNanos + ", evictions=" + evictionCount + '}';
+		}
+	}
+}
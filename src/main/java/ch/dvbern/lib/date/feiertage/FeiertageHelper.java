@@ -15,17 +15,15 @@
 
 package ch.dvbern.lib.date.feiertage;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 
-import ch.dvbern.lib.date.DateHelper;
+import ch.dvbern.lib.date.Day;
+import ch.dvbern.lib.date.EpochDays;
 
 /**
  * Helper für Schweizer Feiertage. Es sind Samstage, Sonntage, Karfreitag,
@@ -38,7 +36,21 @@ public final class FeiertageHelper {
 
 	public static final String DATE_IS_NULL_MSG = "date is null";
 	public static final String NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG = "negative dayCount not allowed";
-	private static Map<Integer, FeiertageCH> feiertageMap = new HashMap<Integer, FeiertageCH>();
+
+	static final int MIN_YEAR = 1500;
+	static final int MAX_YEAR = 9999;
+	static final String YEAR_NOT_IN_RANGE_MSG = "year not between " + MIN_YEAR + " and " + MAX_YEAR;
+
+	/**
+	 * Ab diesem Tag (1.1.1583) rechnet {@link GregorianCalendar} gregorianisch, vorher julianisch.
+	 */
+	private static final int GREGORIANISCH_AB = EpochDays.of(1583, 1, 1);
+
+	/**
+	 * Feiertage pro Jahr, siehe {@link JahresCache} und {@link FeiertageCache}. {@link FeiertageCH} ist immutable,
+	 * darum duerfen die Eintraege ohne Synchronisation zwischen Threads geteilt werden.
+	 */
+	private static final JahresCache<FeiertageCH> FEIERTAGE = new JahresCache<>(FeiertageCH::new);
 
 	/**
 	 * Wird nicht instanziert.
@@ -65,11 +77,9 @@ public final class FeiertageHelper {
 			throw new IllegalArgumentException(NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG);
 		}
 
-		Date result = addDays(date, dayCount);
-		while (isFeiertag_CH(result)) {
-			result = addDays(result, 1);
-		}
-		return result;
+		int start = epochDayOf(date);
+		int result = WorkingDayCalendar.getInstance().getNextWorkingDay(start + dayCount);
+		return addDays(date, result - start);
 	}
 
 	/**
@@ -82,7 +92,8 @@ public final class FeiertageHelper {
 	 * @param dayCount anzahl Tage. Darf NICHT negativ sein. Mit 0 (zero) wird auch
 	 * den nächsten Arbeitstag gesucht.
 	 * @param sperrTagen Applikations-Spezifiche Tagen, die wie Feiertagen behandelt
-	 * werden.
+	 * werden. Bei wiederholten Aufrufen mit denselben Tagen mit Vorteil als
+	 * {@link BlockedDays} übergeben.
 	 * @return a new Date
 	 */
 	public static Date getNextWorkingDate(Date date, int dayCount,
@@ -95,13 +106,9 @@ public final class FeiertageHelper {
 			throw new IllegalArgumentException(NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG);
 		}
 
-		List<Date> sperrTagenClean = cleanList(sperrTagen);
-
-		Date result = addDays(date, dayCount);
-		while (isFeiertag_CH(result) || isSperrTag(result, sperrTagenClean)) {
-			result = addDays(result, 1);
-		}
-		return result;
+		int start = epochDayOf(date);
+		int result = WorkingDayCalendar.getInstance().getNextWorkingDay(start + dayCount, cleanList(sperrTagen));
+		return addDays(date, result - start);
 	}
 
 	/**
@@ -172,7 +179,8 @@ public final class FeiertageHelper {
 	 * übersprungen.
 	 * <p>
 	 * Die Liste <code>sperrTage</code> ist eine Liste von Tagen, welche
-	 * applikationsspezifische Feiertage beinhalten.
+	 * applikationsspezifische Feiertage beinhalten. Wird sie wiederholt
+	 * verwendet, kann sie einmal als {@link BlockedDays} erstellt werden.
 	 *
 	 * <p>
 	 * Beispiel: Der 1.4.2010 ist ein Donnerstag vor Karfreitag. Wird diesem
@@ -205,7 +213,8 @@ public final class FeiertageHelper {
 	 * übersprungen.
 	 * <p>
 	 * Die Liste <code>sperrTage</code> ist eine Liste von Tagen, welche
-	 * applikationsspezifische Feiertage beinhalten.
+	 * applikationsspezifische Feiertage beinhalten. Wird sie wiederholt
+	 * verwendet, kann sie einmal als {@link BlockedDays} erstellt werden.
 	 *
 	 * <p>
 	 * Beispiel: Der 1.4.2010 ist ein Donnerstag vor Karfreitag. Wird diesem
@@ -234,32 +243,11 @@ public final class FeiertageHelper {
 		if (dayCount < 0) {
 			throw new IllegalArgumentException(NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG);
 		}
-		if (sperrTage == null) {
-			throw new IllegalArgumentException("sperrTage is null");
-		}
-		Date result = date;
-		if (jumpToWorkingDay) {
-			// Falls result selbst ein Feiertag ist: auf den nächsten Arbeitstag
-			// springen.
-			result = getNextWorkingDate(result, 0, sperrTage);
-		}
-		int count = 0;
-		while (count++ < dayCount) {
-			result = getNextWorkingDate(result, 1, sperrTage);
-		}
-		return result;
-	}
-
-	private static boolean isSperrTag(Date date, List<Date> sperrTagen) {
-
-		Date dateClean = cleanDate(date);
-
-		for (Date tag : sperrTagen) {
-			if (tag.getTime() == dateClean.getTime()) {
-				return true;
-			}
-		}
-		return false;
+		checkSperrTage(sperrTage);
+		int start = epochDayOf(date);
+		int result = WorkingDayCalendar.getInstance()
+			.addWorkingDays(start, jumpToWorkingDay, dayCount, cleanList(sperrTage));
+		return addDays(date, result - start);
 	}
 
 	/**
@@ -281,11 +269,9 @@ public final class FeiertageHelper {
 			throw new IllegalArgumentException(NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG);
 		}
 
-		Date result = addDays(date, dayCount * -1);
-		while (isFeiertag_CH(result)) {
-			result = addDays(result, -1);
-		}
-		return result;
+		int start = epochDayOf(date);
+		int result = WorkingDayCalendar.getInstance().getPreviousWorkingDay(start - dayCount);
+		return addDays(date, result - start);
 	}
 
 	/**
@@ -298,7 +284,8 @@ public final class FeiertageHelper {
 	 * @param dayCount anzahl Tage. Darf NICHT negativ sein. Mit 0 (zero) wird auch
 	 * den vorigen Arbeitstag gesucht.
 	 * @param sperrTagen Applikations-Spezifiche Tagen, die wie Feiertagen behandelt
-	 * werden.
+	 * werden. Bei wiederholten Aufrufen mit denselben Tagen mit Vorteil als
+	 * {@link BlockedDays} übergeben.
 	 * @return a new Date
 	 */
 	public static Date getPreviousWorkingDate(Date date, int dayCount,
@@ -311,13 +298,9 @@ public final class FeiertageHelper {
 			throw new IllegalArgumentException(NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG);
 		}
 
-		List<Date> sperrTagenClean = cleanList(sperrTagen);
-
-		Date result = addDays(date, dayCount * -1);
-		while (isFeiertag_CH(result) || isSperrTag(result, sperrTagenClean)) {
-			result = addDays(result, -1);
-		}
-		return result;
+		int start = epochDayOf(date);
+		int result = WorkingDayCalendar.getInstance().getPreviousWorkingDay(start - dayCount, cleanList(sperrTagen));
+		return addDays(date, result - start);
 	}
 
 	/**
@@ -338,21 +321,14 @@ public final class FeiertageHelper {
 		if (datumBis == null) {
 			throw new IllegalArgumentException("datumBis ist null");
 		}
-		if (DateHelper.isDateLess(datumBis, datumVon)) {
+		int von = epochDayOf(datumVon);
+		int bis = epochDayOf(datumBis);
+		if (bis < von) {
 			throw new IllegalArgumentException(
 				"datumBis ist kleiner als datumVon");
 		}
 
-		int count = 0;
-		Date current = DateHelper.newDateFromDate(datumVon);
-		while (DateHelper.isDateLessOrEqual(current, datumBis)) {
-			if (!isFeiertag_CH(current)) {
-				count++;
-			}
-			current = DateHelper.addDays(current, 1);
-		}
-
-		return count;
+		return WorkingDayCalendar.getInstance().getAnzahlArbeitstage(von, bis);
 	}
 
 	/**
@@ -370,21 +346,15 @@ public final class FeiertageHelper {
 			throw new IllegalArgumentException(
 				"dateOfMonth not between 1 and 31");
 		}
-		if (month < 1 || month > 13) {
+		if (month < 1 || month > 12) {
 			throw new IllegalArgumentException("month not between 1 and 12");
 		}
-		if (year < 1500 || year > 9999) {
-			throw new IllegalArgumentException("year not between 1500 and 9999");
+		checkYear(year);
+		if (dayOfMonth > EpochDays.lengthOfMonth(year, month)) {
+			throw new IllegalArgumentException("dateOfMonth not valid for month " + month);
 		}
 
-		GregorianCalendar cal = getCalendar();
-		cal.set(year, month - 1, dayOfMonth);
-
-		int dayOfWeek = cal.get(Calendar.DAY_OF_WEEK);
-		if (dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY) {
-			return true;
-		}
-		return getFeiertage(year).isFeiertag(cal);
+		return WorkingDayCalendar.getInstance().isFeiertag(EpochDays.of(year, month, dayOfMonth));
 	}
 
 	/**
@@ -400,20 +370,17 @@ public final class FeiertageHelper {
 			throw new IllegalArgumentException(DATE_IS_NULL_MSG);
 		}
 
-		GregorianCalendar cal = getCalendar();
-		cal.setTime(date);
-		return isFeiertag_CH(cal.get(Calendar.DAY_OF_MONTH), cal
-			.get(Calendar.MONTH) + 1, cal.get(Calendar.YEAR));
+		return WorkingDayCalendar.getInstance().isFeiertag(epochDayOf(date));
 	}
 
 	/**
-	 * Liste der Feiertagen Schweiz pro Jahr.
+	 * Liste der Feiertagen Schweiz pro Jahr. Bei jedem Aufruf eine neue Liste mit
+	 * veraenderbaren Daten, siehe {@link #getHolidays_CH(int)} fuer eine geteilte,
+	 * unveraenderliche Variante.
 	 */
 	public static List<FeiertagCH> getFeiertage_CH(int year) {
 
-		if (year < 1500 || year > 9999) {
-			throw new IllegalArgumentException("year not between 1500 and 9999");
-		}
+		checkYear(year);
 		return getFeiertage(year).getFeiertage();
 	}
 
@@ -425,9 +392,7 @@ public final class FeiertageHelper {
 	 */
 	public static FeiertagCH getFeiertag_CH(int year, FeiertagSchweiz feiertag) {
 
-		if (year < 1500 || year > 9999) {
-			throw new IllegalArgumentException("year not between 1500 and 9999");
-		}
+		checkYear(year);
 		if (feiertag == null) {
 			throw new IllegalArgumentException("feiertag is null");
 		}
@@ -435,6 +400,256 @@ public final class FeiertageHelper {
 		return getFeiertage(year).getFeiertag(feiertag);
 	}
 
+	/**
+	 * Wie {@link #getNextWorkingDate(Date, int)}, ohne Umweg ueber {@link Date} und die Default-Zeitzone.
+	 */
+	public static LocalDate getNextWorkingDate(LocalDate date, int dayCount) {
+
+		return getNextWorkingDate(date, dayCount, BlockedDays.none());
+	}
+
+	/**
+	 * Wie {@link #getNextWorkingDate(Date, int, List)}, ohne Umweg ueber {@link Date} und die Default-Zeitzone.
+	 */
+	public static LocalDate getNextWorkingDate(LocalDate date, int dayCount, BlockedDays sperrTage) {
+
+		if (dayCount < 0) {
+			throw new IllegalArgumentException(NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG);
+		}
+		checkSperrTage(sperrTage);
+		int start = toEpochDay(date);
+		return LocalDate.ofEpochDay(WorkingDayCalendar.getInstance().getNextWorkingDay(start + dayCount, sperrTage));
+	}
+
+	/**
+	 * Wie {@link #getPreviousWorkingDate(Date, int)}, ohne Umweg ueber {@link Date} und die Default-Zeitzone.
+	 */
+	public static LocalDate getPreviousWorkingDate(LocalDate date, int dayCount) {
+
+		return getPreviousWorkingDate(date, dayCount, BlockedDays.none());
+	}
+
+	/**
+	 * Wie {@link #getPreviousWorkingDate(Date, int, List)}, ohne Umweg ueber {@link Date} und die Default-Zeitzone.
+	 */
+	public static LocalDate getPreviousWorkingDate(LocalDate date, int dayCount, BlockedDays sperrTage) {
+
+		if (dayCount < 0) {
+			throw new IllegalArgumentException(NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG);
+		}
+		checkSperrTage(sperrTage);
+		int start = toEpochDay(date);
+		return LocalDate.ofEpochDay(WorkingDayCalendar.getInstance().getPreviousWorkingDay(start - dayCount, sperrTage));
+	}
+
+	/**
+	 * Wie {@link #addWorkingDays(Date, int)}, ohne Umweg ueber {@link Date} und die Default-Zeitzone.
+	 */
+	public static LocalDate addWorkingDays(LocalDate date, int dayCount) {
+
+		return addWorkingDays(date, true, dayCount, BlockedDays.none());
+	}
+
+	/**
+	 * Wie {@link #addWorkingDays(Date, boolean, int)}, ohne Umweg ueber {@link Date} und die Default-Zeitzone.
+	 */
+	public static LocalDate addWorkingDays(LocalDate date, boolean jumpToWorkingDay, int dayCount) {
+
+		return addWorkingDays(date, jumpToWorkingDay, dayCount, BlockedDays.none());
+	}
+
+	/**
+	 * Wie {@link #addWorkingDays(Date, int, List)}, ohne Umweg ueber {@link Date} und die Default-Zeitzone.
+	 */
+	public static LocalDate addWorkingDays(LocalDate date, int dayCount, BlockedDays sperrTage) {
+
+		return addWorkingDays(date, true, dayCount, sperrTage);
+	}
+
+	/**
+	 * Wie {@link #addWorkingDays(Date, boolean, int, List)}, ohne Umweg ueber {@link Date} und die
+	 * Default-Zeitzone.
+	 */
+	public static LocalDate addWorkingDays(LocalDate date, boolean jumpToWorkingDay, int dayCount,
+		BlockedDays sperrTage) {
+
+		checkSperrTage(sperrTage);
+		int start = toEpochDay(date);
+		return LocalDate.ofEpochDay(
+			WorkingDayCalendar.getInstance().addWorkingDays(start, jumpToWorkingDay, dayCount, sperrTage));
+	}
+
+	/**
+	 * Wie {@link #getAnzahlArbeitstage(Date, Date)}, ohne Umweg ueber {@link Date} und die Default-Zeitzone.
+	 */
+	public static int getAnzahlArbeitstage(LocalDate datumVon, LocalDate datumBis) {
+
+		if (datumVon == null) {
+			throw new IllegalArgumentException("datumVon ist null");
+		}
+		if (datumBis == null) {
+			throw new IllegalArgumentException("datumBis ist null");
+		}
+		return WorkingDayCalendar.getInstance().getAnzahlArbeitstage(toEpochDay(datumVon), toEpochDay(datumBis));
+	}
+
+	/**
+	 * Wie {@link #isFeiertag_CH(Date)}, ohne Umweg ueber {@link Date} und die Default-Zeitzone.
+	 */
+	public static boolean isFeiertag_CH(LocalDate date) {
+
+		return WorkingDayCalendar.getInstance().isFeiertag(toEpochDay(date));
+	}
+
+	/**
+	 * Die Daten der Feiertage Schweiz pro Jahr, in derselben Reihenfolge wie {@link #getFeiertage_CH(int)}.
+	 */
+	public static List<LocalDate> getFeiertagDaten_CH(int year) {
+
+		checkYear(year);
+		int[] epochDays = getFeiertage(year).getEpochDays();
+		List<LocalDate> result = new ArrayList<>(epochDays.length);
+		for (int epochDay : epochDays) {
+			result.add(LocalDate.ofEpochDay(epochDay));
+		}
+		return result;
+	}
+
+	/**
+	 * Wie {@link #getNextWorkingDate(LocalDate, int)} mit {@link Day}.
+	 */
+	public static Day getNextWorkingDate(Day date, int dayCount) {
+
+		return getNextWorkingDate(date, dayCount, BlockedDays.none());
+	}
+
+	/**
+	 * Wie {@link #getNextWorkingDate(LocalDate, int, BlockedDays)} mit {@link Day}.
+	 */
+	public static Day getNextWorkingDate(Day date, int dayCount, BlockedDays sperrTage) {
+
+		if (dayCount < 0) {
+			throw new IllegalArgumentException(NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG);
+		}
+		checkSperrTage(sperrTage);
+		int start = toEpochDay(date);
+		return Day.ofEpochDay(WorkingDayCalendar.getInstance().getNextWorkingDay(start + dayCount, sperrTage));
+	}
+
+	/**
+	 * Wie {@link #getPreviousWorkingDate(LocalDate, int)} mit {@link Day}.
+	 */
+	public static Day getPreviousWorkingDate(Day date, int dayCount) {
+
+		return getPreviousWorkingDate(date, dayCount, BlockedDays.none());
+	}
+
+	/**
+	 * Wie {@link #getPreviousWorkingDate(LocalDate, int, BlockedDays)} mit {@link Day}.
+	 */
+	public static Day getPreviousWorkingDate(Day date, int dayCount, BlockedDays sperrTage) {
+
+		if (dayCount < 0) {
+			throw new IllegalArgumentException(NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG);
+		}
+		checkSperrTage(sperrTage);
+		int start = toEpochDay(date);
+		return Day.ofEpochDay(WorkingDayCalendar.getInstance().getPreviousWorkingDay(start - dayCount, sperrTage));
+	}
+
+	/**
+	 * Wie {@link #addWorkingDays(LocalDate, int)} mit {@link Day}.
+	 */
+	public static Day addWorkingDays(Day date, int dayCount) {
+
+		return addWorkingDays(date, true, dayCount, BlockedDays.none());
+	}
+
+	/**
+	 * Wie {@link #addWorkingDays(LocalDate, boolean, int, BlockedDays)} mit {@link Day}.
+	 */
+	public static Day addWorkingDays(Day date, boolean jumpToWorkingDay, int dayCount, BlockedDays sperrTage) {
+
+		checkSperrTage(sperrTage);
+		int start = toEpochDay(date);
+		return Day.ofEpochDay(
+			WorkingDayCalendar.getInstance().addWorkingDays(start, jumpToWorkingDay, dayCount, sperrTage));
+	}
+
+	/**
+	 * Wie {@link #getAnzahlArbeitstage(LocalDate, LocalDate)} mit {@link Day}.
+	 */
+	public static int getAnzahlArbeitstage(Day datumVon, Day datumBis) {
+
+		if (datumVon == null) {
+			throw new IllegalArgumentException("datumVon ist null");
+		}
+		if (datumBis == null) {
+			throw new IllegalArgumentException("datumBis ist null");
+		}
+		return WorkingDayCalendar.getInstance().getAnzahlArbeitstage(toEpochDay(datumVon), toEpochDay(datumBis));
+	}
+
+	/**
+	 * Wie {@link #isFeiertag_CH(LocalDate)} mit {@link Day}.
+	 */
+	public static boolean isFeiertag_CH(Day date) {
+
+		return WorkingDayCalendar.getInstance().isFeiertag(toEpochDay(date));
+	}
+
+	private static int toEpochDay(Day date) {
+
+		if (date == null) {
+			throw new IllegalArgumentException(DATE_IS_NULL_MSG);
+		}
+		checkYear(date.getYear());
+		return date.getEpochDay();
+	}
+
+	private static int toEpochDay(LocalDate date) {
+
+		if (date == null) {
+			throw new IllegalArgumentException(DATE_IS_NULL_MSG);
+		}
+		checkYear(date.getYear());
+		return (int) date.toEpochDay();
+	}
+
+	/**
+	 * Die Feiertage Schweiz pro Jahr als unveraenderliche Liste, die zwischen allen
+	 * Aufrufern geteilt wird (keine Kopie pro Aufruf).
+	 */
+	public static List<Holiday> getHolidays_CH(int year) {
+
+		checkYear(year);
+		return getFeiertage(year).getHolidays();
+	}
+
+	/**
+	 * gibt einen Feiertag Schweiz pro Jahr und Name als unveraenderliches Objekt.
+	 */
+	public static Holiday getHoliday_CH(int year, FeiertagSchweiz feiertag) {
+
+		checkYear(year);
+		if (feiertag == null) {
+			throw new IllegalArgumentException("feiertag is null");
+		}
+		return getFeiertage(year).getHoliday(feiertag);
+	}
+
+	/**
+	 * Der offizielle Feiertag Schweiz an einem Datum. Samstage und Sonntage ohne
+	 * Feiertag ergeben null.
+	 *
+	 * @return Feiertag oder null
+	 */
+	public static Holiday getHoliday_CH(LocalDate date) {
+
+		int epochDay = toEpochDay(date);
+		return getFeiertage(date.getYear()).getHoliday(epochDay);
+	}
+
 	private static Date addDays(Date date, int dayCount) {
 
 		Calendar calendar = getCalendar();
@@ -443,55 +658,84 @@ public final class FeiertageHelper {
 		return calendar.getTime();
 	}
 
-	private static FeiertageCH getFeiertage(int year) {
+	private static void checkYear(int year) {
 
-		FeiertageCH f = feiertageMap.get(year);
-		if (f == null) {
-			feiertageMap.put(year, new FeiertageCH(year));
+		if (year < MIN_YEAR || year > MAX_YEAR) {
+			throw new IllegalArgumentException(YEAR_NOT_IN_RANGE_MSG);
+		}
+	}
+
+	private static void checkSperrTage(List<?> sperrTage) {
+
+		if (sperrTage == null) {
+			throw new IllegalArgumentException("sperrTage is null");
 		}
-		return feiertageMap.get(year);
 	}
 
 	/**
-	 * neues Calendar mit Datum und Zeit undefiniert.
+	 * Der Tag eines Datums in der Default-Zeitzone, mit Jahr, Monat und Tag wie {@link GregorianCalendar} sie
+	 * liefert, also vor 1583 julianisch wie {@link #getFeiertage_CH(int)} und {@code DateHelper.newDate()}. Damit
+	 * ist ein Datum ein Feiertag genau dann, wenn {@link #isFeiertag_CH(int, int, int)} fuer dessen Felder true ist.
+	 *
+	 * @return der gleichnamige Tag seit dem 1.1.1970
 	 */
-	private static GregorianCalendar getCalendar() {
+	static int epochDayOf(Date date) {
 
-		GregorianCalendar cal = new GregorianCalendar();
-		cal.setLenient(false);
-		cal.clear();
-		return cal;
+		int tag = EpochDays.fromDate(date);
+		if (tag >= GREGORIANISCH_AB) {
+			return tag;
+		}
+		GregorianCalendar cal = getCalendar();
+		cal.setTime(date);
+		return EpochDays.of(cal.get(Calendar.YEAR), cal.get(Calendar.MONTH) + 1, cal.get(Calendar.DAY_OF_MONTH));
 	}
 
 	/**
-	 * Setzt Zeit auf 0 für alle Sperrtagen. Doppelte Einträge werden
-	 * eliminiert.
+	 * Umkehrung von {@link #epochDayOf(Date)}: Mitternacht in der Default-Zeitzone.
+	 *
+	 * @param epochDay Tage seit dem 1.1.1970
 	 */
-	private static List<Date> cleanList(List<? extends Date> sperrTagen) {
+	static long millisOf(int epochDay) {
 
-		if (sperrTagen == null) {
-			return Collections.emptyList();
+		if (epochDay >= GREGORIANISCH_AB) {
+			return Day.ofEpochDay(epochDay).toDate().getTime();
 		}
+		GregorianCalendar cal = new GregorianCalendar();
+		cal.clear();
+		cal.set(EpochDays.getYear(epochDay), EpochDays.getMonth(epochDay) - 1, EpochDays.getDayOfMonth(epochDay));
+		return cal.getTimeInMillis();
+	}
 
-		HashSet<Date> sperrTagenClean = new HashSet<Date>();
-		for (Date tag : sperrTagen) {
-			sperrTagenClean.add(cleanDate(tag));
-		}
+	static FeiertageCH getFeiertage(int year) {
+
+		return FEIERTAGE.get(year);
+	}
+
+	static JahresCache<FeiertageCH> getFeiertageCache() {
 
-		return new ArrayList<Date>(sperrTagenClean);
+		return FEIERTAGE;
 	}
 
 	/**
-	 * @return ein neues Datum mit Zeit auf 0
+	 * neues Calendar mit Datum und Zeit undefiniert.
 	 */
-	private static Date cleanDate(Date date) {
+	private static GregorianCalendar getCalendar() {
 
 		GregorianCalendar cal = new GregorianCalendar();
-		cal.setTime(date);
-		cal.set(Calendar.HOUR_OF_DAY, 0);
-		cal.set(Calendar.MINUTE, 0);
-		cal.set(Calendar.SECOND, 0);
-		cal.set(Calendar.MILLISECOND, 0);
-		return cal.getTime();
+		cal.setLenient(false);
+		cal.clear();
+		return cal;
+	}
+
+	/**
+	 * Setzt Zeit auf 0 für alle Sperrtagen. Doppelte Einträge werden
+	 * eliminiert. Eine {@link BlockedDays}-Instanz wird unverändert verwendet.
+	 */
+	private static BlockedDays cleanList(List<? extends Date> sperrTagen) {
+
+		if (sperrTagen == null) {
+			return BlockedDays.none();
+		}
+		return BlockedDays.of(sperrTagen);
 	}
 }
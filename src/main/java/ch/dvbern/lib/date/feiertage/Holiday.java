@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date.feiertage;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Unveraenderlicher Feiertag Schweiz an einem Kalendertag. Im Gegensatz zu {@link FeiertagCH} (ein {@link
+ * java.util.Date}) unabhaengig von der Zeitzone und darum ohne Kopie zwischen Aufrufern teilbar.
+ */
+public final class Holiday implements Serializable {
+
+	private static final long serialVersionUID = 4146432019382755361L;
+
+	private final FeiertagSchweiz feiertag;
+	private final LocalDate date;
+
+	Holiday(FeiertagSchweiz feiertag, int epochDay) {
+		this.feiertag = feiertag;
+		this.date = LocalDate.ofEpochDay(epochDay);
+	}
+
+	/**
+	 * @return FeiertagSchweiz
+	 */
+	public FeiertagSchweiz getFeiertag() {
+		return feiertag;
+	}
+
+	/**
+	 * @return das Datum des Feiertages
+	 */
+	public LocalDate getDate() {
+		return date;
+	}
+
+	/**
+	 * @return das Datum des Feiertages als Tage seit dem 1.1.1970
+	 */
+	public int getEpochDay() {
+		return (int) date.toEpochDay();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof Holiday)) {
+			return false;
+		}
+		Holiday other = (Holiday) o;
+		return feiertag == other.feiertag && date.equals(other.date);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * feiertag.hashCode() + date.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return feiertag + ": " + date;
+	}
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date.feiertage;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import static ch.dvbern.lib.date.feiertage.FeiertageHelper.MAX_YEAR;
+import static ch.dvbern.lib.date.feiertage.FeiertageHelper.MIN_YEAR;
+
+/**
+ * Cache fuer unveraenderliche Werte pro Jahr (1500 bis 9999), Index ist {@code year - MIN_YEAR}.
+ * <p>
+ * Ein Eintrag wird beim ersten Zugriff berechnet und genau einmal publiziert (compare-and-set), danach wird nur
+ * noch gelesen. Bei gleichzeitigem Erstzugriff gewinnt der erste Thread, alle anderen verwenden dessen Instanz.
+ * <p>
+ * Die Anzahl Eintraege kann begrenzt werden ({@link #setMaxEntries(int)}), verdraengt wird der am laengsten
+ * geladene Eintrag (FIFO). Fixierte Eintraege ({@link #pin(int)}, siehe {@link FeiertageCache#warmUp(int, int)})
+ * zaehlen nicht zur Grenze und werden nie verdraengt. Ein verdraengtes Jahr wird beim naechsten Zugriff neu
+ * berechnet.
+ * <p>
+ * Auf dem Lese-Pfad werden nur Fehlzugriffe gezaehlt. Treffer zaehlen nur, wenn {@link #setRecordHits(boolean)}
+ * eingeschaltet ist, damit nicht jeder Zugriff aus allen Threads denselben Zaehler schreibt.
+ *
+ * @param <T> unveraenderlicher Wert pro Jahr
+ */
+final class JahresCache<T> {
+
+	private final IntFunction<T> loader;
+	private final AtomicReferenceArray<T> eintraege = new AtomicReferenceArray<>(MAX_YEAR - MIN_YEAR + 1);
+	private final AtomicIntegerArray fixiert = new AtomicIntegerArray(MAX_YEAR - MIN_YEAR + 1);
+
+	/**
+	 * Nicht fixierte Eintraege in Lade-Reihenfolge. Fixierte Eintraege werden beim Verdraengen uebersprungen.
+	 */
+	private final Queue<Integer> reihenfolge = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger anzahl = new AtomicInteger();
+	private volatile int maxEntries = Integer.MAX_VALUE;
+	private volatile boolean recordHits;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder loadNanos = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	JahresCache(IntFunction<T> loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * @param year Jahr, muss zwischen 1500 und 9999 liegen
+	 */
+	T get(int year) {
+
+		int index = year - MIN_YEAR;
+		T wert = eintraege.get(index);
+		if (wert != null) {
+			if (recordHits) {
+				hits.increment();
+			}
+			return wert;
+		}
+		misses.increment();
+		long start = System.nanoTime();
+		T neu = loader.apply(year);
+		loadNanos.add(System.nanoTime() - start);
+		if (!eintraege.compareAndSet(index, null, neu)) {
+			// ein anderer Thread war schneller. Falls dessen Eintrag inzwischen verdraengt wurde, gilt der eigene.
+			wert = eintraege.get(index);
+			return wert != null ? wert : neu;
+		}
+		if (fixiert.get(index) == 0) {
+			reihenfolge.add(index);
+			if (anzahl.incrementAndGet() > maxEntries) {
+				verdraengen();
+			}
+		}
+		return neu;
+	}
+
+	/**
+	 * Laedt das Jahr und schuetzt es vor dem Verdraengen.
+	 */
+	void pin(int year) {
+
+		fixiert.set(year - MIN_YEAR, 1);
+		get(year);
+	}
+
+	void setMaxEntries(int maxEntries) {
+
+		if (maxEntries < 0) {
+			throw new IllegalArgumentException("maxEntries is negative");
+		}
+		this.maxEntries = maxEntries;
+		verdraengen();
+	}
+
+	int getMaxEntries() {
+		return maxEntries;
+	}
+
+	void setRecordHits(boolean recordHits) {
+		this.recordHits = recordHits;
+	}
+
+	boolean isRecordHits() {
+		return recordHits;
+	}
+
+	/**
+	 * Leert den Cache inkl. fixierter Eintraege und setzt die Statistik zurueck.
+	 */
+	void clear() {
+
+		for (int index = 0; index < eintraege.length(); index++) {
+			fixiert.set(index, 0);
+			eintraege.set(index, null);
+		}
+		reihenfolge.clear();
+		anzahl.set(0);
+		hits.reset();
+		misses.reset();
+		loadNanos.reset();
+		evictions.reset();
+	}
+
+	FeiertageCache.Statistics getStatistics() {
+
+		int size = 0;
+		for (int index = 0; index < eintraege.length(); index++) {
+			if (eintraege.get(index) != null) {
+				size++;
+			}
+		}
+		return new FeiertageCache.Statistics(size, hits.sum(), misses.sum(), loadNanos.sum(), evictions.sum());
+	}
+
+	private void verdraengen() {
+
+		while (anzahl.get() > maxEntries) {
+			Integer index = reihenfolge.poll();
+			if (index == null) {
+				return;
+			}
+			anzahl.decrementAndGet();
+			if (fixiert.get(index) == 0) {
+				eintraege.set(index, null);
+				evictions.increment();
+			}
+		}
+	}
+}
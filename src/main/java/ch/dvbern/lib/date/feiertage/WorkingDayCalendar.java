@@ -0,0 +1,472 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date.feiertage;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import ch.dvbern.lib.date.EpochDays;
+
+import static ch.dvbern.lib.date.feiertage.FeiertageHelper.MAX_YEAR;
+import static ch.dvbern.lib.date.feiertage.FeiertageHelper.MIN_YEAR;
+import static ch.dvbern.lib.date.feiertage.FeiertageHelper.YEAR_NOT_IN_RANGE_MSG;
+
+/**
+ * Kompilierter Arbeitstag-Kalender Schweiz. Pro Kalendertag wird ein Bit gespeichert, welches gesetzt ist, wenn
+ * der Tag ein Samstag, Sonntag oder ein offizieller Feiertag Schweiz ist (siehe {@link FeiertageHelper}).
+ * <p>
+ * Die Tage werden als Anzahl Tage seit dem 1.1.1970 adressiert (siehe {@link EpochDays}), unterstuetzt werden die
+ * Jahre 1500 bis 9999 im proleptischen gregorianischen Kalender. Die Bits eines Jahres werden beim ersten Zugriff
+ * berechnet und danach nur noch gelesen, eine Abfrage ist damit ein Shift und eine Maske ohne Allokation.
+ * <p>
+ * Zusaetzlich wird pro 64-Tage-Wort die Anzahl Arbeitstage vor diesem Wort im Jahr und pro Jahr die Anzahl
+ * Arbeitstage vor diesem Jahr gefuehrt (Rang-Index). Die Anzahl Arbeitstage zwischen zwei beliebigen Tagen ergibt
+ * sich damit aus zwei Abfragen und je einem Popcount, unabhaengig von der Laenge des Zeitraumes. Umgekehrt wird der
+ * n-te Arbeitstag nach einem Tag per binaerer Suche ueber die Jahressummen gefunden (Select), ohne die Tage
+ * dazwischen einzeln zu pruefen.
+ * <p>
+ * Fuer grosse Mengen von Tagen gibt es Bulk-Methoden auf primitiven Arrays ({@link #classify(int[], long[])},
+ * {@link #countWorkingDays(int[], int[], int[])}), die grosse Eingaben per Fork/Join auf mehrere Kerne verteilen.
+ * <p>
+ * Der Kalender ist nach aussen unveraenderlich und thread-safe.
+ */
+public final class WorkingDayCalendar {
+
+	/**
+	 * Bulk-Eingaben bis zu dieser Groesse werden im aufrufenden Thread berechnet, groessere aufgeteilt.
+	 */
+	private static final int BULK_SCHWELLE = 1 << 13;
+
+	private static final WorkingDayCalendar INSTANCE = new WorkingDayCalendar();
+
+	private final int minEpochDay = EpochDays.of(MIN_YEAR, 1, 1);
+	private final int maxEpochDay = EpochDays.of(MAX_YEAR, 12, 31);
+
+	/**
+	 * Feiertag-Bits pro Jahr, siehe {@link JahresCache} und {@link FeiertageCache}.
+	 */
+	private final JahresCache<Jahr> jahre = new JahresCache<>(Jahr::new);
+
+	/**
+	 * Anzahl Arbeitstage vom 1.1.1500 bis vor den 1.1. des Jahres {@code MIN_YEAR + index}.
+	 */
+	private final int[] arbeitstageVorJahr = new int[MAX_YEAR - MIN_YEAR + 2];
+
+	private WorkingDayCalendar() {
+
+		// Die Jahressummen lassen sich ohne die Bits des Jahres berechnen, darum koennen sie eager befuellt werden
+		for (int year = MIN_YEAR; year <= MAX_YEAR; year++) {
+			int index = year - MIN_YEAR;
+			arbeitstageVorJahr[index + 1] = arbeitstageVorJahr[index] + getAnzahlArbeitstage(year);
+		}
+	}
+
+	/**
+	 * @return der Arbeitstag-Kalender Schweiz
+	 */
+	public static WorkingDayCalendar getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @return der erste unterstuetzte Tag (1.1.1500) als Tage seit dem 1.1.1970
+	 */
+	public int getMinEpochDay() {
+		return minEpochDay;
+	}
+
+	/**
+	 * @return der letzte unterstuetzte Tag (31.12.9999) als Tage seit dem 1.1.1970
+	 */
+	public int getMaxEpochDay() {
+		return maxEpochDay;
+	}
+
+	/**
+	 * @param epochDay Tage seit dem 1.1.1970
+	 * @return true wenn der Tag ein Samstag, Sonntag oder eidg. Feiertag ist.
+	 */
+	public boolean isFeiertag(int epochDay) {
+
+		Jahr jahr = getJahr(epochDay);
+		int tag = epochDay - jahr.ersterTag;
+		return (jahr.feiertage[tag >>> 6] & (1L << tag)) != 0;
+	}
+
+	/**
+	 * @param epochDay Tage seit dem 1.1.1970
+	 * @return true wenn der Tag ein Werktag und kein eidg. Feiertag ist.
+	 */
+	public boolean isArbeitstag(int epochDay) {
+
+		return !isFeiertag(epochDay);
+	}
+
+	/**
+	 * Anzahl Arbeitstage zwischen {@code vonEpochDay} und {@code bisEpochDay}. D.h. Montag bis Freitag mit
+	 * Beruecksichtigung der offiziellen Feiertage Schweiz.
+	 *
+	 * @param vonEpochDay Start Berechnung (mitberechnet)
+	 * @param bisEpochDay Ende Berechnung (mitberechnet)
+	 * @return Anzahl Arbeitstage
+	 */
+	public int getAnzahlArbeitstage(int vonEpochDay, int bisEpochDay) {
+
+		if (bisEpochDay < vonEpochDay) {
+			throw new IllegalArgumentException("datumBis ist kleiner als datumVon");
+		}
+		return rank(bisEpochDay) - rank(vonEpochDay) + (isArbeitstag(vonEpochDay) ? 1 : 0);
+	}
+
+	/**
+	 * @param epochDay Tage seit dem 1.1.1970
+	 * @return {@code epochDay} wenn es ein Arbeitstag ist, sonst der naechste Arbeitstag danach
+	 */
+	public int getNextWorkingDay(int epochDay) {
+
+		return isArbeitstag(epochDay) ? epochDay : select(rank(epochDay) + 1);
+	}
+
+	/**
+	 * @param epochDay Tage seit dem 1.1.1970
+	 * @return {@code epochDay} wenn es ein Arbeitstag ist, sonst der letzte Arbeitstag davor
+	 */
+	public int getPreviousWorkingDay(int epochDay) {
+
+		return select(rank(epochDay));
+	}
+
+	/**
+	 * Zaehlt zum Tag {@code epochDay} die Anzahl Arbeitstage {@code dayCount} hinzu, mit derselben Semantik wie
+	 * {@link FeiertageHelper#addWorkingDays(java.util.Date, boolean, int, java.util.List)}.
+	 *
+	 * @param epochDay Basis fuer die Berechnung, Tage seit dem 1.1.1970
+	 * @param jumpToWorkingDay wenn {@code true} wird zuerst auf den naechsten Arbeitstag gesprungen, falls
+	 * {@code epochDay} selbst kein Arbeitstag ist
+	 * @param dayCount Anzahl Arbeitstage. Darf NICHT negativ sein.
+	 * @return der Arbeitstag nach Ablauf von {@code dayCount} Arbeitstagen
+	 */
+	public int addWorkingDays(int epochDay, boolean jumpToWorkingDay, int dayCount) {
+
+		return addWorkingDays(epochDay, jumpToWorkingDay, dayCount, BlockedDays.none());
+	}
+
+	/**
+	 * Wie {@link #getNextWorkingDay(int)}, die {@code sperrTage} werden wie Feiertage behandelt.
+	 *
+	 * @param sperrTage applikationsspezifische Tage, die wie Feiertage behandelt werden
+	 */
+	public int getNextWorkingDay(int epochDay, BlockedDays sperrTage) {
+
+		int result = getNextWorkingDay(epochDay);
+		while (sperrTage.contains(result)) {
+			result = getNextWorkingDay(result + 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Wie {@link #getPreviousWorkingDay(int)}, die {@code sperrTage} werden wie Feiertage behandelt.
+	 *
+	 * @param sperrTage applikationsspezifische Tage, die wie Feiertage behandelt werden
+	 */
+	public int getPreviousWorkingDay(int epochDay, BlockedDays sperrTage) {
+
+		int result = getPreviousWorkingDay(epochDay);
+		while (sperrTage.contains(result)) {
+			result = getPreviousWorkingDay(result - 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Wie {@link #addWorkingDays(int, boolean, int)}, die {@code sperrTage} werden wie Feiertage behandelt.
+	 *
+	 * @param sperrTage applikationsspezifische Tage, die wie Feiertage behandelt werden
+	 */
+	public int addWorkingDays(int epochDay, boolean jumpToWorkingDay, int dayCount, BlockedDays sperrTage) {
+
+		if (dayCount < 0) {
+			throw new IllegalArgumentException(FeiertageHelper.NEGATIVE_DAY_COUNT_NOT_ALLOWED_MSG);
+		}
+		int start = jumpToWorkingDay ? getNextWorkingDay(epochDay, sperrTage) : epochDay;
+		if (dayCount == 0) {
+			return start;
+		}
+		// Direkt zum dayCount-ten Arbeitstag springen. Jeder dabei uebersprungene Sperrtag verlangt einen
+		// zusaetzlichen Arbeitstag, darum wird ab dem Ergebnis um deren Anzahl weiter gesprungen.
+		int result = select(rank(start) + dayCount);
+		int fehlend = countArbeitstage(sperrTage, start, result);
+		while (fehlend > 0) {
+			start = result;
+			result = select(rank(start) + fehlend);
+			fehlend = countArbeitstage(sperrTage, start, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Klassifiziert alle Tage in {@code epochDays}: Bit {@code i % 64} von {@code resultBits[i / 64]} wird gesetzt,
+	 * wenn {@code epochDays[i]} ein Samstag, Sonntag oder eidg. Feiertag ist (siehe {@link #isFeiertag(int)}),
+	 * sonst geloescht. Bits nach dem letzten Tag werden geloescht.
+	 *
+	 * @param epochDays Tage seit dem 1.1.1970, beliebige Reihenfolge
+	 * @param resultBits Resultat, mindestens {@code (epochDays.length + 63) / 64} lang
+	 */
+	public void classify(int[] epochDays, long[] resultBits) {
+
+		if (epochDays == null || resultBits == null) {
+			throw new IllegalArgumentException("epochDays or resultBits is null");
+		}
+		if (resultBits.length < (epochDays.length + 63) >>> 6) {
+			throw new IllegalArgumentException("resultBits too short");
+		}
+		bulk(epochDays.length, (von, bis) -> classify(epochDays, resultBits, von, bis));
+	}
+
+	/**
+	 * Berechnet fuer jeden Index {@code i} {@code out[i] = getAnzahlArbeitstage(von[i], bis[i])}.
+	 *
+	 * @param von Start der Berechnungen (mitberechnet), Tage seit dem 1.1.1970
+	 * @param bis Ende der Berechnungen (mitberechnet), gleich lang wie {@code von}
+	 * @param out Resultat, mindestens so lang wie {@code von}
+	 */
+	public void countWorkingDays(int[] von, int[] bis, int[] out) {
+
+		if (von == null || bis == null || out == null) {
+			throw new IllegalArgumentException("von, bis or out is null");
+		}
+		if (bis.length != von.length || out.length < von.length) {
+			throw new IllegalArgumentException("array length mismatch");
+		}
+		bulk(von.length, (start, ende) -> {
+			for (int i = start; i < ende; i++) {
+				out[i] = getAnzahlArbeitstage(von[i], bis[i]);
+			}
+		});
+	}
+
+	private void classify(int[] epochDays, long[] resultBits, int von, int bis) {
+
+		// Aufeinanderfolgende Tage liegen meist im selben Jahr, darum wird das letzte Jahr wiederverwendet
+		Jahr jahr = null;
+		long wort = 0;
+		for (int i = von; i < bis; i++) {
+			int epochDay = epochDays[i];
+			if (jahr == null || epochDay < jahr.ersterTag || epochDay > jahr.letzterTag) {
+				jahr = getJahr(epochDay);
+			}
+			int tag = epochDay - jahr.ersterTag;
+			wort |= ((jahr.feiertage[tag >>> 6] >>> tag) & 1L) << i;
+			if ((i & 63) == 63) {
+				resultBits[i >>> 6] = wort;
+				wort = 0;
+			}
+		}
+		if ((bis & 63) != 0) {
+			resultBits[bis >>> 6] = wort;
+		}
+	}
+
+	/**
+	 * Fuehrt {@code abschnitt} fuer die Indizes {@code [0, anzahl)} aus, bei grossen Eingaben aufgeteilt im
+	 * {@link ForkJoinPool#commonPool()}. Die Abschnitte beginnen immer an einem Vielfachen von 64, damit sich
+	 * zwei Abschnitte kein Wort von {@link #classify(int[], long[])} teilen.
+	 */
+	private static void bulk(int anzahl, Abschnitt abschnitt) {
+
+		if (anzahl <= BULK_SCHWELLE) {
+			abschnitt.berechne(0, anzahl);
+		} else {
+			ForkJoinPool.commonPool().invoke(new BulkTask(abschnitt, 0, anzahl));
+		}
+	}
+
+	@FunctionalInterface
+	private interface Abschnitt {
+
+		void berechne(int von, int bis);
+	}
+
+	private static final class BulkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Abschnitt abschnitt;
+		private final int von;
+		private final int bis;
+
+		BulkTask(Abschnitt abschnitt, int von, int bis) {
+
+			this.abschnitt = abschnitt;
+			this.von = von;
+			this.bis = bis;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (bis - von <= BULK_SCHWELLE) {
+				abschnitt.berechne(von, bis);
+				return;
+			}
+			int mitte = ((von + bis) >>> 1) & ~63;
+			invokeAll(new BulkTask(abschnitt, von, mitte), new BulkTask(abschnitt, mitte, bis));
+		}
+	}
+
+	/**
+	 * @return Anzahl Arbeitstage in {@code tage} im Bereich {@code (nach, bis]}
+	 */
+	private int countArbeitstage(BlockedDays tage, int nach, int bis) {
+
+		int count = 0;
+		for (int index = tage.indexOfFirstFrom(nach + 1); index < tage.size() && tage.getEpochDay(index) <= bis; index++) {
+			if (isArbeitstag(tage.getEpochDay(index))) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @param rang 1 fuer den ersten Arbeitstag ab dem 1.1.1500
+	 * @return der Tag mit dem gegebenen Rang, d.h. der Arbeitstag {@code d} mit {@code rank(d) == rang}
+	 */
+	private int select(int rang) {
+
+		if (rang < 1 || rang > arbeitstageVorJahr[arbeitstageVorJahr.length - 1]) {
+			throw new IllegalArgumentException(YEAR_NOT_IN_RANGE_MSG);
+		}
+		// letztes Jahr, vor dem weniger als rang Arbeitstage liegen
+		int lo = 0;
+		int hi = arbeitstageVorJahr.length - 2;
+		while (lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if (arbeitstageVorJahr[mid] < rang) {
+				lo = mid;
+			} else {
+				hi = mid - 1;
+			}
+		}
+		Jahr jahr = getJahr(EpochDays.of(MIN_YEAR + lo, 1, 1));
+		int rest = rang - arbeitstageVorJahr[lo];
+		int wort = 0;
+		while (wort + 1 < jahr.arbeitstageVorWort.length && jahr.arbeitstageVorWort[wort + 1] < rest) {
+			wort++;
+		}
+		long frei = ~jahr.feiertage[wort];
+		for (int i = rest - jahr.arbeitstageVorWort[wort]; i > 1; i--) {
+			// tiefstes gesetztes Bit loeschen
+			frei &= frei - 1;
+		}
+		return jahr.ersterTag + (wort << 6) + Long.numberOfTrailingZeros(frei);
+	}
+
+	/**
+	 * @return Anzahl Arbeitstage vom 1.1.1500 bis und mit {@code epochDay}
+	 */
+	private int rank(int epochDay) {
+
+		Jahr jahr = getJahr(epochDay);
+		int tag = epochDay - jahr.ersterTag;
+		int wort = tag >>> 6;
+		// Bits 0 bis und mit tag im Wort
+		long maske = -1L >>> (63 - (tag & 63));
+		return arbeitstageVorJahr[jahr.index] + jahr.arbeitstageVorWort[wort]
+			+ Long.bitCount(~jahr.feiertage[wort] & maske);
+	}
+
+	/**
+	 * Anzahl Arbeitstage eines Jahres: Werktage minus Feiertage, die auf einen Werktag fallen.
+	 */
+	private static int getAnzahlArbeitstage(int year) {
+
+		// 52 ganze Wochen, dazu 1 oder 2 Tage, die auf denselben Wochentag fallen wie der 1.1.
+		int werktage = 52 * 5;
+		int wochentag = EpochDays.getDayOfWeek(EpochDays.of(year, 1, 1));
+		for (int i = 0; i < EpochDays.lengthOfYear(year) - 364; i++) {
+			if ((wochentag - 1 + i) % 7 < 5) {
+				werktage++;
+			}
+		}
+		return werktage - FeiertageCH.getAnzahlFeiertageAnWerktagen(year);
+	}
+
+	private Jahr getJahr(int epochDay) {
+
+		if (epochDay < minEpochDay || epochDay > maxEpochDay) {
+			throw new IllegalArgumentException(YEAR_NOT_IN_RANGE_MSG);
+		}
+		return jahre.get(EpochDays.getYear(epochDay));
+	}
+
+	JahresCache<?> getJahresCache() {
+
+		return jahre;
+	}
+
+	/**
+	 * Die Feiertag-Bits eines Jahres. Bit {@code i} steht fuer den Tag {@code ersterTag + i}.
+	 */
+	private static final class Jahr {
+
+		private final int index;
+		private final int ersterTag;
+		private final int letzterTag;
+		private final long[] feiertage;
+
+		/**
+		 * Anzahl Arbeitstage im Jahr vor dem jeweiligen Wort.
+		 */
+		private final int[] arbeitstageVorWort;
+
+		Jahr(int year) {
+
+			index = year - MIN_YEAR;
+			ersterTag = EpochDays.of(year, 1, 1);
+			int anzahlTage = EpochDays.lengthOfYear(year);
+			letzterTag = ersterTag + anzahlTage - 1;
+			feiertage = new long[(anzahlTage + 63) >>> 6];
+			arbeitstageVorWort = new int[feiertage.length];
+
+			// Bits nach dem Jahresende zaehlen nicht als Arbeitstage
+			feiertage[feiertage.length - 1] = -1L << anzahlTage;
+
+			int wochentagErsterTag = EpochDays.getDayOfWeek(ersterTag);
+			for (int tag = 0; tag < anzahlTage; tag++) {
+				// 0 = Montag ... 5 = Samstag, 6 = Sonntag
+				int wochentag = (wochentagErsterTag - 1 + tag) % 7;
+				if (wochentag >= 5) {
+					setBit(tag);
+				}
+			}
+			for (int feiertag : FeiertageHelper.getFeiertage(year).getEpochDays()) {
+				setBit(feiertag - ersterTag);
+			}
+
+			int summe = 0;
+			for (int wort = 0; wort < feiertage.length; wort++) {
+				arbeitstageVorWort[wort] = summe;
+				summe += Long.bitCount(~feiertage[wort]);
+			}
+		}
+
+		private void setBit(int tag) {
+			feiertage[tag >>> 6] |= 1L << tag;
+		}
+	}
+}
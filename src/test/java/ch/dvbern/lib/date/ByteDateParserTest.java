@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import ch.dvbern.lib.date.ByteDateParser.Format;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ByteDateParserTest {
+
+	private static final String[] SWISS = {
+		"01.01.2017", "1.1.2017", "31.12.9999", "01.01.1583", "31.12.1582", "29.02.2016", "29.02.2017",
+		"31.04.2017", "00.01.2017", "01.13.2017", "001.01.2017", "01.01.17", "01.01.20170", "01.01.2017x",
+		" 1.01.2017", "01-01-2017", "", "ä.01.2017", "01.01.201٧", "30.10.2016"
+	};
+
+	private static final String[] ISO = {
+		"2017-01-01", "0000-01-01", "9999-12-31", "2016-02-29", "2017-02-29", "2017-04-31", "2017-13-01",
+		"2017-1-01", "17-01-01", "+12017-01-01", "2017-01-01x", "2017/01/01", "", "ä017-01-01"
+	};
+
+	@Test
+	public void testSwissGleichWieDateHelper() {
+
+		for (String text : SWISS) {
+			Object erwartet;
+			try {
+				erwartet = EpochDays.fromDate(DateHelper.getDateFromString(text));
+			} catch (ParseException e) {
+				erwartet = e.getMessage() + " @" + (e.getErrorOffset() + 3);
+			}
+			assertEquals(text, erwartet, resultat(text, Format.DD_MM_YYYY));
+		}
+	}
+
+	@Test
+	public void testIsoGleichWieLocalDate() {
+
+		for (String text : ISO) {
+			Object erwartet;
+			try {
+				erwartet = (int) LocalDate.parse(text).toEpochDay();
+			} catch (DateTimeParseException e) {
+				erwartet = e.getMessage() + " @" + (e.getErrorIndex() + 3);
+			}
+			assertEquals(text, erwartet, resultat(text, Format.ISO));
+		}
+	}
+
+	@Test
+	public void testScanColumns() throws ParseException {
+
+		String csv = "id;von;bis;name\r\n"
+			+ "1;01.02.2017;2017-03-31;a\r\n"
+			+ "2;;2017-04-30\n"
+			+ "3;15.05.2017\n";
+		ByteBuffer buffer = ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8));
+		int[][] result = ByteDateParser.scanColumns(buffer, 0, buffer.limit(), (byte) ';', 1, new int[] { 2, 1 },
+			new Format[] { Format.ISO, Format.DD_MM_YYYY });
+
+		assertArrayEquals(new int[] { EpochDays.of(2017, 3, 31), EpochDays.of(2017, 4, 30), ByteDateParser.EMPTY },
+			result[0]);
+		assertArrayEquals(new int[] { EpochDays.of(2017, 2, 1), ByteDateParser.EMPTY, EpochDays.of(2017, 5, 15) },
+			result[1]);
+		assertEquals(0, buffer.position());
+	}
+
+	@Test
+	public void testScanColumnsViele() throws ParseException {
+
+		StringBuilder sb = new StringBuilder();
+		int start = EpochDays.of(2000, 1, 1);
+		for (int i = 0; i < 5000; i++) {
+			sb.append(LocalDate.ofEpochDay(start + i)).append(',');
+			SwissDateFormat.formatTo(DateHelper.addDays(DateHelper.newDate(1, 1, 2000), i), sb).append('\n');
+		}
+		ByteBuffer buffer = ByteBuffer.allocateDirect(sb.length());
+		buffer.put(sb.toString().getBytes(StandardCharsets.US_ASCII));
+		int[][] result = ByteDateParser.scanColumns(buffer, 0, buffer.limit(), (byte) ',', 0, new int[] { 0, 1 },
+			new Format[] { Format.ISO, Format.DD_MM_YYYY });
+
+		assertEquals(5000, result[0].length);
+		for (int i = 0; i < 5000; i++) {
+			assertEquals(start + i, result[0][i]);
+			assertEquals(start + i, result[1][i]);
+		}
+	}
+
+	@Test
+	public void testScanColumnsFehler() {
+
+		String csv = "1;2017-01-01\n2;2017-02-30\n";
+		ByteBuffer buffer = ByteBuffer.wrap(csv.getBytes(StandardCharsets.US_ASCII));
+		try {
+			ByteDateParser.scanColumns(buffer, 0, buffer.limit(), (byte) ';', 0, new int[] { 1 },
+				new Format[] { Format.ISO });
+			Assert.fail("ParseException erwartet");
+		} catch (ParseException e) {
+			assertEquals(15, e.getErrorOffset());
+			Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("line 2, column 1: "));
+		}
+	}
+
+	/**
+	 * Parst den Text mit 3 Bytes davor und danach.
+	 */
+	private static Object resultat(String text, Format format) {
+
+		byte[] bytes = ("xx;" + text + ";yy").getBytes(StandardCharsets.UTF_8);
+		int length = text.getBytes(StandardCharsets.UTF_8).length;
+		try {
+			return ByteDateParser.parse(ByteBuffer.wrap(bytes), 3, length, format);
+		} catch (ParseException e) {
+			return e.getMessage() + " @" + e.getErrorOffset();
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Differenz-Test: die Calendar-freien Methoden von {@link DateHelper} (siehe {@link DateArithmetic}) muessen
+ * dieselben Resultate liefern wie die bisherige Implementation mit einem nicht-lenient Calendar, auch ueber
+ * Zeitzonen-Umstellungen und vor der gregorianischen Kalenderreform.
+ */
+public class DateArithmeticTest {
+
+	private static final Locale LOCALE_DE_CH = new Locale("de", "CH");
+
+	private static final String[] ZONEN = {
+		"Europe/Zurich",
+		// Umstellung um Mitternacht
+		"America/Sao_Paulo",
+		// Umstellung um 30 Minuten
+		"Australia/Lord_Howe",
+		"America/St_Johns",
+		// 30.12.2011 uebersprungen
+		"Pacific/Apia",
+		"UTC"
+	};
+
+	@Test
+	public void testGleichWieCalendar() {
+
+		TimeZone original = TimeZone.getDefault();
+		try {
+			for (String zone : ZONEN) {
+				TimeZone.setDefault(TimeZone.getTimeZone(zone));
+				vergleiche(new Random(zone.hashCode()), zone);
+			}
+		} finally {
+			TimeZone.setDefault(original);
+		}
+	}
+
+	private void vergleiche(Random random, String zone) {
+
+		long von = EpochDays.of(1560, 1, 1) * EpochDays.MILLIS_PER_DAY;
+		long bis = EpochDays.of(2100, 1, 1) * EpochDays.MILLIS_PER_DAY;
+		for (int i = 0; i < 20000; i++) {
+			long millis;
+			if (random.nextBoolean()) {
+				millis = von + (long) (random.nextDouble() * (bis - von));
+			} else {
+				// oft in der Naehe der Umstellungen: kurz nach Mitternacht bis 4 Uhr
+				long tag = EpochDays.of(1970 + random.nextInt(60), 1, 1) + random.nextInt(366);
+				millis = tag * EpochDays.MILLIS_PER_DAY + random.nextInt(4 * 3600000) - 12 * 3600000L
+					+ random.nextInt(24) * 1800000L;
+			}
+			Date date = new Date(millis);
+			Date other = new Date(von + (long) (random.nextDouble() * (bis - von)));
+			int tage = random.nextInt(801) - 400;
+			int monate = random.nextInt(61) - 30;
+			int jahre = random.nextInt(41) - 20;
+			String msg = zone + ' ' + millis;
+
+			check(msg, () -> referenzAdd(date, Calendar.DATE, tage), () -> DateHelper.addDays(date, tage));
+			check(msg, () -> referenzAdd(date, Calendar.MONTH, monate), () -> DateHelper.addMonths(date, monate));
+			check(msg, () -> referenzAdd(date, Calendar.YEAR, jahre), () -> DateHelper.addYears(date, jahre));
+			for (int field : new int[] { Calendar.YEAR, Calendar.MONTH, Calendar.DAY_OF_MONTH, Calendar.DAY_OF_YEAR,
+				Calendar.DAY_OF_WEEK, Calendar.HOUR_OF_DAY, Calendar.MINUTE, Calendar.SECOND,
+				Calendar.MILLISECOND }) {
+				int offset = field == Calendar.MONTH ? 1 : 0;
+				check(msg, () -> getCalendar(date).get(field) + offset, () -> DateHelper.get(field, date));
+			}
+			check(msg, () -> getCalendar(date).get(Calendar.DAY_OF_WEEK), () -> DateHelper.dayOfWeek(date));
+			check(msg, () -> getCalendar(date).get(Calendar.DATE), () -> DateHelper.getDay(date));
+			check(msg, () -> getCalendar(date).get(Calendar.MONTH) + 1, () -> DateHelper.getMonth(date));
+			check(msg, () -> getCalendar(date).get(Calendar.YEAR), () -> DateHelper.getYear(date));
+			check(msg, () -> getCalendar(date).get(Calendar.HOUR_OF_DAY), () -> DateHelper.getHour(date));
+
+			check(msg, () -> referenzSet(date, Calendar.DAY_OF_WEEK, Calendar.MONDAY),
+				() -> DateHelper.getFirstDayOfWeek(date));
+			check(msg, () -> referenzSet(date, Calendar.DAY_OF_WEEK, Calendar.SUNDAY),
+				() -> DateHelper.getLastDayOfWeek(date));
+			check(msg, () -> referenzSet(date, Calendar.DATE, 1), () -> DateHelper.getFirstDayOfMonth(date));
+			check(msg, () -> referenzSet(date, Calendar.DATE, getCalendar(date).getActualMaximum(Calendar.DATE)),
+				() -> DateHelper.getLastDayOfMonth(date));
+
+			check(msg, () -> referenzGetDate(date, other), () -> DateHelper.getDate(date, other));
+			int stunde = random.nextInt(26) - 1;
+			int minute = random.nextInt(60);
+			int sekunde = random.nextInt(60);
+			int milli = random.nextInt(1000);
+			check(msg, () -> referenzExactTime(date, stunde, minute, sekunde, milli),
+				() -> DateHelper.newDateForExactTime(date, stunde, minute, sekunde, milli));
+
+			int year = random.nextInt(600) + 1550;
+			int month = random.nextInt(14) - 1;
+			int day = random.nextInt(33) - 1;
+			check(msg, () -> referenzNewDate(day, month, year), () -> DateHelper.newDate(day, month, year));
+			check(msg, () -> referenzNewDate(sekunde, minute, stunde, day, month, year),
+				() -> DateHelper.newDate(sekunde, minute, stunde, day, month, year));
+			check(msg, () -> referenzDaysInMonth(month, year), () -> DateHelper.getDaysInMonth(month, year));
+		}
+	}
+
+	/**
+	 * Vergleicht Resultat oder Exception-Klasse.
+	 */
+	private static void check(String msg, Supplier<Object> erwartet, Supplier<Object> aktuell) {
+
+		assertEquals(msg, resultat(erwartet), resultat(aktuell));
+	}
+
+	private static Object resultat(Supplier<Object> supplier) {
+
+		try {
+			return supplier.get();
+		} catch (RuntimeException e) {
+			return e.getClass();
+		}
+	}
+
+	private static Calendar getCalendar() {
+
+		Calendar calendar = Calendar.getInstance(LOCALE_DE_CH);
+		calendar.setLenient(false);
+		calendar.clear();
+		return calendar;
+	}
+
+	private static Calendar getCalendar(Date date) {
+
+		Calendar calendar = getCalendar();
+		calendar.setTime(date);
+		return calendar;
+	}
+
+	private static Date referenzAdd(Date date, int field, int anzahl) {
+
+		Calendar calendar = getCalendar(date);
+		calendar.add(field, anzahl);
+		return calendar.getTime();
+	}
+
+	private static Date referenzSet(Date date, int field, int wert) {
+
+		Calendar calendar = getCalendar(date);
+		calendar.set(field, wert);
+		return calendar.getTime();
+	}
+
+	private static Date referenzGetDate(Date date, Date time) {
+
+		Calendar timeCalender = getCalendar(time);
+		Calendar calendar = getCalendar(date);
+		calendar.set(Calendar.MILLISECOND, timeCalender.get(Calendar.MILLISECOND));
+		calendar.set(Calendar.SECOND, timeCalender.get(Calendar.SECOND));
+		calendar.set(Calendar.MINUTE, timeCalender.get(Calendar.MINUTE));
+		calendar.set(Calendar.HOUR_OF_DAY, timeCalender.get(Calendar.HOUR_OF_DAY));
+		return calendar.getTime();
+	}
+
+	private static Date referenzExactTime(Date date, int hour, int minute, int second, int millisecond) {
+
+		Calendar cal = getCalendar(date);
+		cal.set(Calendar.HOUR_OF_DAY, hour);
+		cal.set(Calendar.MINUTE, minute);
+		cal.set(Calendar.SECOND, second);
+		cal.set(Calendar.MILLISECOND, millisecond);
+		return cal.getTime();
+	}
+
+	private static Date referenzNewDate(int day, int month, int year) {
+
+		Calendar calendar = getCalendar();
+		calendar.set(year, month - 1, day);
+		return calendar.getTime();
+	}
+
+	private static Date referenzNewDate(int second, int minute, int hour, int day, int month, int year) {
+
+		Calendar calendar = getCalendar();
+		calendar.set(year, month - 1, day, hour, minute, second);
+		return calendar.getTime();
+	}
+
+	private static int referenzDaysInMonth(int month, int year) {
+
+		Calendar calendar = getCalendar();
+		calendar.set(Calendar.YEAR, year);
+		calendar.set(Calendar.MONTH, month - 1);
+		calendar.set(Calendar.DATE, 1);
+		return calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+	}
+}
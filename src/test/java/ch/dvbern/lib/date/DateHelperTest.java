@@ -15,11 +15,21 @@
 
 package ch.dvbern.lib.date;
 
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -230,6 +240,39 @@ public class DateHelperTest {
 		Assert.assertEquals("Millisecond", 0, calendar.get(Calendar.MILLISECOND));
 	}
 
+	@Test
+	public void testCurrentDateMitClock() {
+
+		// 25.3.2017 23:59:59.999 in Zuerich, die Nacht vor der Umstellung auf Sommerzeit
+		Instant spaet = LocalDateTime.of(2017, 3, 25, 23, 59, 59, 999000000).atZone(ZoneId.of("Europe/Zurich"))
+			.toInstant();
+		TimeZone original = TimeZone.getDefault();
+		try {
+			TimeZone.setDefault(TimeZone.getTimeZone("Europe/Zurich"));
+			DateHelper.setClock(Clock.fixed(spaet, ZoneOffset.UTC));
+			Assert.assertEquals(DateHelper.newDate(25, 3, 2017), DateHelper.currentDate());
+			Assert.assertEquals(new Timestamp(spaet.toEpochMilli()), DateHelper.currentTimestamp());
+			Assert.assertEquals(DateHelper.newDateForExactTime(DateHelper.newDate(25, 1, 2017), 23, 59, 59, 999),
+				DateHelper.currentDateMinusMonaten(2));
+
+			// eine Millisekunde spaeter ist ein neuer Tag, der Cache darf nicht mehr gelten
+			DateHelper.setClock(Clock.offset(Clock.fixed(spaet, ZoneOffset.UTC), Duration.ofMillis(1)));
+			Assert.assertEquals(DateHelper.newDate(26, 3, 2017), DateHelper.currentDate());
+			Date heute = DateHelper.currentDate();
+			Assert.assertNotSame(heute, DateHelper.currentDate());
+
+			DateHelper.setCurrentDateCache(false);
+			Assert.assertEquals(DateHelper.newDate(26, 3, 2017), DateHelper.currentDate());
+			DateHelper.setClock(Clock.fixed(spaet, ZoneOffset.UTC));
+			Assert.assertEquals(DateHelper.newDate(25, 3, 2017), DateHelper.currentDate());
+		} finally {
+			DateHelper.setCurrentDateCache(true);
+			DateHelper.resetClock();
+			TimeZone.setDefault(original);
+		}
+		Assert.assertEquals(Clock.systemUTC(), DateHelper.getClock());
+	}
+
 	@Test
 	public void testGetMax() {
 
@@ -377,6 +420,34 @@ public class DateHelperTest {
 		Assert.assertEquals("Anzahl Tage", 9, DateHelper.getAnzahlTage(von, bis, false));
 	}
 
+	@Test
+	public void testGetAnzahlTageUeberUmstellung() {
+
+		// die Zeit zaehlt nicht, auch nicht ueber die Sommerzeit-Umstellung
+		Date von = DateHelper.newDate(0, 59, 23, 26, 3, 2016);
+		Date bis = DateHelper.newDate(0, 1, 0, 28, 3, 2016);
+		Assert.assertEquals("Anzahl Tage", 2, DateHelper.getAnzahlTage(von, bis, false));
+		Assert.assertEquals("Anzahl Tage", -1, DateHelper.getAnzahlTage(bis, DateHelper.newDate(27, 3, 2016), false));
+		Assert.assertEquals("Anzahl Tage", 0, DateHelper.getAnzahlTage((Date) null, bis, true));
+	}
+
+	@Test
+	public void testGetAnzahlTageLocalDateUndEpochDays() {
+
+		LocalDate von = LocalDate.of(2003, 11, 1);
+		LocalDate bis = LocalDate.of(2004, 10, 31);
+		Assert.assertEquals(366, DateHelper.getAnzahlTage(von, bis, true));
+		Assert.assertEquals(365, DateHelper.getAnzahlTage(von, bis, false));
+		Assert.assertEquals(0, DateHelper.getAnzahlTage((LocalDate) null, bis, false));
+		Assert.assertEquals(366, DateHelper.getAnzahlTage((int) von.toEpochDay(), (int) bis.toEpochDay(), true));
+
+		int[] vonTage = { (int) von.toEpochDay(), EpochDays.of(2005, 4, 1), EpochDays.of(2005, 4, 10) };
+		int[] bisTage = { (int) bis.toEpochDay(), EpochDays.of(2005, 4, 10), EpochDays.of(2005, 4, 1) };
+		int[] anzahl = new int[3];
+		DateHelper.getAnzahlTage(vonTage, bisTage, true, anzahl);
+		Assert.assertArrayEquals(new int[] { 366, 10, -8 }, anzahl);
+	}
+
 	@Test
 	public void testIsSchalttagBetween() {
 
@@ -397,6 +468,25 @@ public class DateHelperTest {
 		Assert.assertEquals("Schalttag", true, DateHelper.isSchalttagBetween(von, bis));
 	}
 
+	@Test
+	public void testCountSchalttage() {
+
+		Assert.assertEquals(0, DateHelper.countSchalttage(DateHelper.newDate(1, 3, 2004),
+			DateHelper.newDate(28, 2, 2008)));
+		Assert.assertEquals(1, DateHelper.countSchalttage(DateHelper.newDate(1, 3, 2004),
+			DateHelper.newDate(29, 2, 2008)));
+		Assert.assertEquals(3, DateHelper.countSchalttage(DateHelper.newDate(29, 2, 2000),
+			DateHelper.newDate(59, 59, 23, 31, 12, 2011)));
+		Assert.assertEquals(24, DateHelper.countSchalttage(DateHelper.newDate(1, 1, 1901),
+			DateHelper.newDate(1, 1, 2000)));
+		Assert.assertEquals(0, DateHelper.countSchalttage(DateHelper.newDate(1, 1, 2009),
+			DateHelper.newDate(1, 1, 2000)));
+		Assert.assertEquals(0, DateHelper.countSchalttage(null, DateHelper.newDate(1, 1, 2000)));
+		// julianisch: 1500 war ein Schaltjahr
+		Assert.assertEquals(1, DateHelper.countSchalttage(DateHelper.newDate(1, 1, 1500),
+			DateHelper.newDate(31, 12, 1500)));
+	}
+
 	@Test
 	public void testAlterAm() {
 
@@ -410,6 +500,46 @@ public class DateHelperTest {
 
 	}
 
+	@Test
+	public void testAlterAmSchalttag() {
+
+		Date gebdat = DateHelper.newDate(29, 2, 2004);
+		Assert.assertEquals(0, DateHelper.getAlterAm(gebdat, DateHelper.newDate(28, 2, 2005)));
+		Assert.assertEquals(1, DateHelper.getAlterAm(gebdat, DateHelper.newDate(1, 3, 2005)));
+		Assert.assertEquals(4, DateHelper.getAlterAm(gebdat, DateHelper.newDate(29, 2, 2008)));
+		Assert.assertEquals(0, DateHelper.getAlterAmYyyymmdd(20040229, 20050228));
+		Assert.assertEquals(1, DateHelper.getAlterAmYyyymmdd(20040229, 20050301));
+		Assert.assertEquals(-1, DateHelper.getAlterAmYyyymmdd(20040229, 20040228));
+	}
+
+	@Test
+	public void testAlterAmEpochDays() {
+
+		Random random = new Random(1);
+		int von = EpochDays.of(1900, 1, 1);
+		int[] geburtsTage = new int[50000];
+		for (int i = 0; i < geburtsTage.length; i++) {
+			geburtsTage[i] = von + random.nextInt(45000);
+		}
+		for (int stichTag : new int[] { EpochDays.of(2016, 2, 29), EpochDays.of(2017, 2, 28),
+			EpochDays.of(2017, 3, 1), EpochDays.of(1950, 6, 30) }) {
+			int[] alter = new int[geburtsTage.length];
+			DateHelper.getAlterAm(geburtsTage, stichTag, alter);
+			LocalDate stich = LocalDate.ofEpochDay(stichTag);
+			for (int i = 0; i < geburtsTage.length; i++) {
+				LocalDate geburt = LocalDate.ofEpochDay(geburtsTage[i]);
+				int erwartet = stich.getYear() - geburt.getYear();
+				if (stich.getMonthValue() < geburt.getMonthValue()
+					|| stich.getMonthValue() == geburt.getMonthValue()
+					&& stich.getDayOfMonth() < geburt.getDayOfMonth()) {
+					erwartet--;
+				}
+				Assert.assertEquals(geburt + " " + stich, erwartet, alter[i]);
+				Assert.assertEquals(erwartet, DateHelper.getAlterAm(geburtsTage[i], stichTag));
+			}
+		}
+	}
+
 	@Test
 	public void testZeitraumLuecken() {
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DayTest {
+
+	@Test
+	public void testUmwandlungen() {
+
+		for (int jahr = 1500; jahr < 2100; jahr += 7) {
+			for (int monat = 1; monat <= 12; monat++) {
+				Day day = Day.of(jahr, monat, monat + 15);
+				LocalDate localDate = LocalDate.of(jahr, monat, monat + 15);
+				assertEquals(localDate, day.toLocalDate());
+				assertEquals(day, Day.from(localDate));
+				assertEquals(day, Day.from(day.toDate()));
+				assertEquals(day, Day.from(day.toSqlDate()));
+				assertEquals(localDate, day.toSqlDate().toLocalDate());
+				assertEquals(jahr, day.getYear());
+				assertEquals(monat, day.getMonth());
+				assertEquals(monat + 15, day.getDayOfMonth());
+				assertEquals(localDate.getDayOfWeek().getValue(), day.getDayOfWeek());
+				assertEquals(localDate.toString(), day.toString());
+			}
+		}
+		assertEquals(DateHelper.newDate(14, 3, 2017), Day.of(2017, 3, 14).toDate());
+		assertEquals(Day.of(2017, 3, 14), Day.from(DateHelper.newDate(59, 59, 23, 14, 3, 2017)));
+	}
+
+	@Test
+	public void testUmwandlungAndereZeitzonen() {
+
+		TimeZone original = TimeZone.getDefault();
+		try {
+			for (String id : new String[] { "America/New_York", "America/Sao_Paulo", "Asia/Kolkata", "UTC" }) {
+				TimeZone.setDefault(TimeZone.getTimeZone(id));
+				for (int tag = EpochDays.of(1400, 1, 1); tag < EpochDays.of(2100, 1, 1); tag += 13) {
+					Day day = Day.ofEpochDay(tag);
+					Date date = day.toDate();
+					assertEquals(id + ' ' + day, day, Day.from(date));
+					// Mitternacht: eine Millisekunde vorher ist der Vortag
+					assertEquals(id + ' ' + day, day.plusDays(-1), Day.from(new Date(date.getTime() - 1)));
+				}
+			}
+		} finally {
+			TimeZone.setDefault(original);
+		}
+	}
+
+	@Test
+	public void testVergleich() {
+
+		Day day = Day.of(2016, 2, 29);
+		Day naechster = day.plusDays(1);
+		assertEquals(Day.of(2016, 3, 1), naechster);
+		assertTrue(day.isBefore(naechster));
+		assertTrue(naechster.isAfter(day));
+		assertFalse(day.isAfter(day));
+		assertEquals(-1, day.compareTo(naechster));
+		assertEquals(day.hashCode(), Day.ofEpochDay(day.getEpochDay()).hashCode());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOfUngueltig() {
+
+		Day.of(2017, 2, 29);
+	}
+
+	@Test
+	public void testSerialisierung() throws IOException, ClassNotFoundException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(Day.of(2017, 3, 14));
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			assertEquals(Day.of(2017, 3, 14), in.readObject());
+		}
+	}
+
+	@Test
+	public void testDateHelperUndZeitraum() {
+
+		Day von = Day.of(2004, 2, 1);
+		Day bis = Day.of(2005, 3, 31);
+		Date vonDate = von.toDate();
+		Date bisDate = bis.toDate();
+		assertEquals(DateHelper.getAnzahlTage(vonDate, bisDate, true), DateHelper.getAnzahlTage(von, bis, true));
+		assertEquals(DateHelper.countSchalttage(vonDate, bisDate), DateHelper.countSchalttage(von, bis));
+		assertTrue(DateHelper.isSchalttagBetween(von, bis));
+		assertEquals(DateHelper.getAlterAm(vonDate, bisDate), DateHelper.getAlterAm(von, bis));
+		assertEquals(DateHelper.getKalenderWoche(bisDate), DateHelper.getKalenderWoche(bis));
+
+		Zeitraum zeitraum = new Zeitraum(von, bis);
+		assertEquals(new Zeitraum(vonDate, bisDate), zeitraum);
+		assertEquals(von, zeitraum.getVonDay());
+		assertEquals(bis, zeitraum.getBisDay());
+		assertTrue(zeitraum.contains(bis));
+		assertFalse(zeitraum.contains(bis.plusDays(1)));
+	}
+}
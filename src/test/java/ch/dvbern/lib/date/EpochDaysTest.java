@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test-Klasse für {@link EpochDays}, verglichen mit {@link LocalDate}.
+ */
+public class EpochDaysTest {
+
+	@Test
+	public void testGleichWieLocalDate() {
+
+		LocalDate bis = LocalDate.of(10000, 1, 1);
+		for (LocalDate tag = LocalDate.of(-400, 1, 1); tag.isBefore(bis); tag = tag.plusDays(1)) {
+			int epochDay = (int) tag.toEpochDay();
+			String msg = tag.toString();
+			assertEquals(msg, epochDay, EpochDays.of(tag.getYear(), tag.getMonthValue(), tag.getDayOfMonth()));
+			assertEquals(msg, tag.getYear(), EpochDays.getYear(epochDay));
+			assertEquals(msg, tag.getMonthValue(), EpochDays.getMonth(epochDay));
+			assertEquals(msg, tag.getDayOfMonth(), EpochDays.getDayOfMonth(epochDay));
+			assertEquals(msg, tag.getDayOfWeek().getValue(), EpochDays.getDayOfWeek(epochDay));
+			assertEquals(msg, tag.lengthOfMonth(), EpochDays.lengthOfMonth(tag.getYear(), tag.getMonthValue()));
+			assertEquals(msg, tag.lengthOfYear(), EpochDays.lengthOfYear(tag.getYear()));
+		}
+	}
+
+	@Test
+	public void testFromDate() {
+
+		assertEquals(LocalDate.of(2009, 4, 10).toEpochDay(), EpochDays.fromDate(DateHelper.newDate(10, 4, 2009)));
+		assertEquals(LocalDate.of(2009, 4, 10).toEpochDay(),
+			EpochDays.fromDate(DateHelper.newDate(59, 59, 23, 10, 4, 2009)));
+		assertEquals(LocalDate.of(1969, 12, 31).toEpochDay(), EpochDays.fromDate(DateHelper.newDate(31, 12, 1969)));
+	}
+
+	@Test
+	public void testCountLeapDays() {
+
+		// kumulierte Anzahl 29. Februar ab dem 1.1.1500
+		int start = EpochDays.of(1500, 1, 1);
+		int[] kumuliert = new int[EpochDays.of(2500, 1, 1) - start];
+		int anzahl = 0;
+		for (int i = 0; i < kumuliert.length; i++) {
+			LocalDate tag = LocalDate.ofEpochDay(start + i);
+			if (tag.getMonthValue() == 2 && tag.getDayOfMonth() == 29) {
+				anzahl++;
+			}
+			kumuliert[i] = anzahl;
+		}
+		Random random = new Random(29);
+		for (int i = 0; i < 100000; i++) {
+			int von = random.nextInt(kumuliert.length - 1) + 1;
+			int bis = von + random.nextInt(Math.min(kumuliert.length - von, 5000));
+			assertEquals(kumuliert[bis] - kumuliert[von - 1], EpochDays.countLeapDays(start + von, start + bis));
+		}
+		assertEquals(0, EpochDays.countLeapDays(EpochDays.of(2004, 3, 1), EpochDays.of(2004, 2, 29)));
+		assertEquals(1, EpochDays.countLeapDays(EpochDays.of(2004, 2, 29), EpochDays.of(2004, 2, 29)));
+		assertEquals(97, EpochDays.countLeapDays(EpochDays.of(2000, 1, 1), EpochDays.of(2399, 12, 31)));
+	}
+}
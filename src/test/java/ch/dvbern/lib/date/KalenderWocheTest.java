@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test-Klasse für {@link KalenderWoche}, verglichen mit {@link IsoFields} und dem Calendar von {@link DateHelper}.
+ */
+public class KalenderWocheTest {
+
+	@Test
+	public void testGleichWieIsoFields() {
+
+		LocalDate bis = LocalDate.of(10000, 1, 1);
+		for (LocalDate tag = LocalDate.of(1, 1, 1); tag.isBefore(bis); tag = tag.plusDays(1)) {
+			int kalenderWoche = KalenderWoche.of((int) tag.toEpochDay());
+			assertEquals(tag.toString(), tag.get(IsoFields.WEEK_BASED_YEAR), KalenderWoche.getJahr(kalenderWoche));
+			assertEquals(tag.toString(), tag.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR),
+				KalenderWoche.getWoche(kalenderWoche));
+		}
+	}
+
+	@Test
+	public void testGleichWieCalendar() {
+
+		Calendar calendar = Calendar.getInstance(new Locale("de", "CH"));
+		calendar.setLenient(false);
+		for (int jahr = 1500; jahr < 2100; jahr++) {
+			for (int tagImJahr = 0; tagImJahr < 366; tagImJahr += jahr > 1590 && jahr < 2090 ? 3 : 1) {
+				calendar.clear();
+				calendar.set(jahr, Calendar.JANUARY, 1);
+				calendar.add(Calendar.DATE, tagImJahr);
+				Date date = calendar.getTime();
+				int woche = calendar.get(Calendar.WEEK_OF_YEAR);
+				String msg = date.toString();
+				assertEquals(msg, woche, DateHelper.getWeekOfYear(date));
+				int jahrDerWoche = calendar.get(Calendar.YEAR);
+				if (woche > 50 && calendar.get(Calendar.MONTH) == Calendar.JANUARY) {
+					jahrDerWoche--;
+				} else if (woche < 10 && calendar.get(Calendar.MONTH) == Calendar.DECEMBER) {
+					jahrDerWoche++;
+				}
+				assertEquals(msg, jahrDerWoche, DateHelper.getYearOfWeek(date));
+				assertEquals(msg, jahrDerWoche * 100 + woche, DateHelper.getKalenderWoche(date));
+			}
+		}
+	}
+
+	@Test
+	public void testMontagUndAnzahlWochen() {
+
+		assertEquals(200453, DateHelper.getKalenderWoche(DateHelper.newDate(1, 1, 2005)));
+		assertEquals(EpochDays.of(2004, 12, 27), KalenderWoche.getMontag(200453));
+		assertEquals(EpochDays.of(2008, 12, 29), KalenderWoche.getMontag(200901));
+		assertEquals(53, KalenderWoche.getAnzahlWochen(2004));
+		assertEquals(52, KalenderWoche.getAnzahlWochen(2005));
+		for (int tag = EpochDays.of(1990, 1, 1); tag < EpochDays.of(2030, 1, 1); tag++) {
+			int kalenderWoche = KalenderWoche.of(tag);
+			int montag = KalenderWoche.getMontag(kalenderWoche);
+			assertEquals(1, EpochDays.getDayOfWeek(montag));
+			assertEquals(tag - EpochDays.getDayOfWeek(tag) + 1, montag);
+		}
+	}
+
+	@Test
+	public void testOfAll() {
+
+		int von = EpochDays.of(2000, 1, 1);
+		int[] tage = new int[20000];
+		for (int i = 0; i < tage.length; i++) {
+			tage[i] = von + i;
+		}
+		int[] kalenderWochen = new int[tage.length];
+		KalenderWoche.ofAll(tage, kalenderWochen);
+		for (int i = 0; i < tage.length; i++) {
+			assertEquals(KalenderWoche.of(tage[i]), kalenderWochen[i]);
+		}
+	}
+}
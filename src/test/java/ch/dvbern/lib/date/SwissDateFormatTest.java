@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Vergleicht {@link SwissDateFormat} mit einem nicht-lenienten {@code SimpleDateFormat("dd.MM.yyyy")}.
+ */
+public class SwissDateFormatTest {
+
+	private static final String[] TEXTE = {
+		"01.01.2017", "1.1.2017", "31.12.9999", "01.01.1583", "31.12.1582", "15.10.1582", "10.10.1582",
+		"29.02.2016", "29.02.2017", "29.02.1900", "29.02.2000", "31.04.2017", "00.01.2017", "01.00.2017",
+		"01.13.2017", "32.01.2017", "001.01.2017", "01.001.2017", "01.01.02017", "01.01.17", "01.01.0",
+		"01.01.20170", "01.01.2017 12:00", "01.01.2017x", " 1.01.2017", "01. 1.2017", "-1.01.2017",
+		"01.01.-2017", "01-01-2017", "01.01.", "01.01", "", ".", "a", "01..2017", "١.01.2017",
+		"01.01.201٧", "27.03.2016", "30.10.2016", "16.10.2016", "20.02.2016"
+	};
+
+	private static final String[] ZONEN = { "Europe/Zurich", "America/Sao_Paulo", "UTC" };
+
+	@Test
+	public void testParseGleichWieSimpleDateFormat() {
+
+		TimeZone original = TimeZone.getDefault();
+		try {
+			for (String zone : ZONEN) {
+				TimeZone.setDefault(TimeZone.getTimeZone(zone));
+				for (String text : TEXTE) {
+					Assert.assertEquals(zone + " '" + text + '\'', referenzParse(text), resultat(text));
+				}
+			}
+		} finally {
+			TimeZone.setDefault(original);
+		}
+	}
+
+	@Test
+	public void testFormatGleichWieSimpleDateFormat() throws IOException {
+
+		TimeZone original = TimeZone.getDefault();
+		Random random = new Random(4711);
+		try {
+			for (String zone : ZONEN) {
+				TimeZone.setDefault(TimeZone.getTimeZone(zone));
+				long von = EpochDays.of(1500, 1, 1) * EpochDays.MILLIS_PER_DAY;
+				long bis = EpochDays.of(10100, 1, 1) * EpochDays.MILLIS_PER_DAY;
+				for (int i = 0; i < 20000; i++) {
+					Date date = new Date(von + (long) (random.nextDouble() * (bis - von)));
+					String erwartet = new SimpleDateFormat(SwissDateFormat.PATTERN).format(date);
+					assertEquals(zone + ' ' + date.getTime(), erwartet, SwissDateFormat.format(date));
+					assertEquals(erwartet, DateHelper.getFormattedString(date));
+					assertEquals("x" + erwartet, SwissDateFormat.formatTo(date, new StringBuilder("x")).toString());
+					assertEquals(erwartet, SwissDateFormat.formatTo(date, new StringWriter()).toString());
+					assertEquals(zone + ' ' + erwartet, referenzParse(erwartet), resultat(erwartet));
+				}
+			}
+		} finally {
+			TimeZone.setDefault(original);
+		}
+	}
+
+	@Test
+	public void testAndereLocale() throws ParseException {
+
+		Locale original = Locale.getDefault();
+		try {
+			Locale.setDefault(new Locale("th", "TH", "TH"));
+			Date date = DateHelper.newDate(14, 3, 2017);
+			assertEquals(new SimpleDateFormat(SwissDateFormat.PATTERN).format(date), SwissDateFormat.format(date));
+			String text = new SimpleDateFormat(SwissDateFormat.PATTERN).format(date);
+			assertEquals(date, SwissDateFormat.parse(text));
+		} finally {
+			Locale.setDefault(original);
+		}
+		assertEquals("14.03.2017", SwissDateFormat.format(DateHelper.newDate(14, 3, 2017)));
+	}
+
+	@Test
+	public void testBereich() throws ParseException {
+
+		String csv = "4711;14.03.2017;0x.01.2017";
+		assertEquals(DateHelper.newDate(14, 3, 2017), SwissDateFormat.parse(csv, 5, 15));
+		assertEquals(EpochDays.of(2017, 3, 14), SwissDateFormat.parseEpochDay(csv, 5, 15));
+		assertEquals(EpochDays.of(2017, 3, 14), SwissDateFormat.parseEpochDay(new StringBuilder(csv), 5, 15));
+		try {
+			SwissDateFormat.parse(csv, 16, csv.length());
+			Assert.fail("ParseException erwartet");
+		} catch (ParseException e) {
+			assertEquals(17, e.getErrorOffset());
+			assertEquals("Unparseable date: \"0x.01.2017\"", e.getMessage());
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testBereichUngueltig() throws ParseException {
+
+		SwissDateFormat.parse("14.03.2017", 5, 11);
+	}
+
+	private static Object referenzParse(String text) {
+
+		SimpleDateFormat format = new SimpleDateFormat(SwissDateFormat.PATTERN);
+		format.setLenient(false);
+		try {
+			return format.parse(text);
+		} catch (ParseException e) {
+			return e.getMessage() + " @" + e.getErrorOffset();
+		}
+	}
+
+	private static Object resultat(String text) {
+
+		try {
+			Date date = DateHelper.getDateFromString(text);
+			assertEquals(text, EpochDays.fromDate(date), SwissDateFormat.parseEpochDay(text, 0, text.length()));
+			return date;
+		} catch (ParseException e) {
+			return e.getMessage() + " @" + e.getErrorOffset();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test-Klasse für {@link ZeitraumIndex}, verglichen mit {@link Zeitraum#contains(Day)} und
+ * {@link Zeitraum#intersects(Zeitraum)}.
+ */
+public class ZeitraumIndexTest {
+
+	@Test
+	public void testGleichWieZeitraum() {
+
+		// klein (sequentiell aufgebaut) und gross (parallel aufgebaut)
+		for (int anzahl : new int[] { 1, 7, 300, 40000 }) {
+			Random random = new Random(anzahl);
+			List<Zeitraum> zeitraeume = zufaellig(random, anzahl);
+			ZeitraumIndex index = ZeitraumIndex.of(zeitraeume);
+			assertEquals(anzahl, index.size());
+			int basis = EpochDays.of(2000, 1, 1);
+			for (int i = 0; i < 200; i++) {
+				Day day = Day.ofEpochDay(basis - 50 + random.nextInt(3800));
+				Set<Integer> erwartet = new HashSet<>();
+				for (int j = 0; j < anzahl; j++) {
+					if (zeitraeume.get(j).contains(day)) {
+						erwartet.add(j);
+					}
+				}
+				assertEquals(day.toString(), erwartet, indexe(index.indexesContaining(day.getEpochDay())));
+				assertEquals(erwartet.size(), index.streamContaining(day).count());
+
+				Zeitraum zeitraum = new Zeitraum(day, day.plusDays(random.nextInt(random.nextBoolean() ? 5 : 500)));
+				erwartet.clear();
+				for (int j = 0; j < anzahl; j++) {
+					if (zeitraeume.get(j).intersects(zeitraum)) {
+						erwartet.add(j);
+					}
+				}
+				assertEquals(zeitraum.toString(), erwartet, indexe(index.indexesOverlapping(
+					zeitraum.getVonEpochDay(), zeitraum.getBisEpochDay())));
+				assertEquals(erwartet.stream().map(index::get).collect(Collectors.toSet()),
+					index.streamOverlapping(zeitraum).collect(Collectors.toSet()));
+			}
+		}
+	}
+
+	@Test
+	public void testGleicheZeitraeume() {
+
+		Zeitraum januar = new Zeitraum(Day.of(2017, 1, 1), Day.of(2017, 1, 31));
+		ZeitraumIndex index = ZeitraumIndex.of(Arrays.asList(januar, januar, januar));
+		assertEquals(new HashSet<>(Arrays.asList(0, 1, 2)), indexe(index.indexesContaining(januar.getVonEpochDay())));
+		assertEquals(3, index.streamOverlapping(new Zeitraum(Day.of(2016, 1, 1), Day.of(2017, 1, 1))).count());
+		assertFalse(index.containing(Day.of(2017, 2, 1)).hasNext());
+	}
+
+	@Test
+	public void testLeer() {
+
+		ZeitraumIndex index = ZeitraumIndex.of(Collections.emptyList());
+		assertEquals(0, index.size());
+		assertFalse(index.containing(Day.of(2017, 1, 1)).hasNext());
+		assertFalse(index.indexesOverlapping(0, 1000).hasNext());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNull() {
+
+		ZeitraumIndex.of(Arrays.asList(new Zeitraum(Day.of(2017, 1, 1), Day.of(2017, 1, 31)), null));
+	}
+
+	private static List<Zeitraum> zufaellig(Random random, int anzahl) {
+
+		int basis = EpochDays.of(2000, 1, 1);
+		List<Zeitraum> zeitraeume = new ArrayList<>(anzahl);
+		for (int i = 0; i < anzahl; i++) {
+			Day von = Day.ofEpochDay(basis + random.nextInt(3650));
+			int dauer = random.nextInt(10) == 0 ? random.nextInt(2000) : random.nextInt(60);
+			zeitraeume.add(new Zeitraum(von, von.plusDays(dauer)));
+		}
+		return zeitraeume;
+	}
+
+	private static Set<Integer> indexe(PrimitiveIterator.OfInt iterator) {
+
+		Set<Integer> result = new HashSet<>();
+		while (iterator.hasNext()) {
+			// jeder Treffer genau einmal
+			assertTrue(result.add(iterator.nextInt()));
+		}
+		return result;
+	}
+}
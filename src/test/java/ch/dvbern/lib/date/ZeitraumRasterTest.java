@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test-Klasse für {@link ZeitraumRaster}, verglichen mit {@link LocalDate}.
+ */
+public class ZeitraumRasterTest {
+
+	private static final ZeitraumRaster GESCHAEFTSJAHRE = ZeitraumRaster.ofMonths(12, 7);
+	private static final ZeitraumRaster LOHNPERIODEN = ZeitraumRaster.ofDays(14, Day.of(2017, 1, 2));
+
+	@Test
+	public void testZellen() {
+
+		LocalDate bis = LocalDate.of(2101, 1, 1);
+		for (LocalDate tag = LocalDate.of(1899, 1, 1); tag.isBefore(bis); tag = tag.plusDays(1)) {
+			Day day = Day.from(tag);
+			assertEquals(zeitraum(tag.with(DayOfWeek.MONDAY), tag.with(DayOfWeek.SUNDAY)),
+				ZeitraumRaster.WOCHEN.getZelle(day));
+			assertEquals(zeitraum(tag.withDayOfMonth(1), tag.withDayOfMonth(tag.lengthOfMonth())),
+				ZeitraumRaster.MONATE.getZelle(day));
+			LocalDate quartal = tag.with(IsoFields.DAY_OF_QUARTER, 1);
+			assertEquals(zeitraum(quartal, quartal.plusMonths(3).minusDays(1)), ZeitraumRaster.QUARTALE.getZelle(day));
+			assertEquals(zeitraum(tag.withDayOfYear(1), tag.withMonth(12).withDayOfMonth(31)),
+				ZeitraumRaster.JAHRE.getZelle(day));
+			int jahr = tag.getMonthValue() >= 7 ? tag.getYear() : tag.getYear() - 1;
+			assertEquals(zeitraum(LocalDate.of(jahr, 7, 1), LocalDate.of(jahr + 1, 6, 30)),
+				GESCHAEFTSJAHRE.getZelle(day));
+			Zeitraum lohnperiode = LOHNPERIODEN.getZelle(day);
+			assertEquals(14, lohnperiode.getDuationInDays());
+			assertTrue(lohnperiode.contains(day));
+			assertEquals(0, Math.floorMod(lohnperiode.getVonEpochDay() - EpochDays.of(2017, 1, 2), 14));
+		}
+	}
+
+	@Test
+	public void testStream() {
+
+		Zeitraum zeitraum = zeitraum(LocalDate.of(2017, 2, 15), LocalDate.of(2017, 11, 3));
+		assertEquals(Arrays.asList(
+			zeitraum(LocalDate.of(2017, 2, 15), LocalDate.of(2017, 3, 31)),
+			zeitraum(LocalDate.of(2017, 4, 1), LocalDate.of(2017, 6, 30)),
+			zeitraum(LocalDate.of(2017, 7, 1), LocalDate.of(2017, 9, 30)),
+			zeitraum(LocalDate.of(2017, 10, 1), LocalDate.of(2017, 11, 3))),
+			zeitraum.streamSplit(ZeitraumRaster.QUARTALE).collect(Collectors.toList()));
+		assertEquals(Arrays.asList(
+			zeitraum(LocalDate.of(2017, 2, 15), LocalDate.of(2017, 6, 30)),
+			zeitraum(LocalDate.of(2017, 7, 1), LocalDate.of(2017, 11, 3))),
+			GESCHAEFTSJAHRE.stream(zeitraum).collect(Collectors.toList()));
+		assertEquals(Arrays.asList(zeitraum), ZeitraumRaster.JAHRE.stream(zeitraum).collect(Collectors.toList()));
+		assertEquals(10, zeitraum.streamByMonth().count());
+	}
+
+	@Test
+	public void testGleichWieSplitByMonth() {
+
+		Random random = new Random(25);
+		for (int i = 0; i < 2000; i++) {
+			Day von = Day.ofEpochDay(EpochDays.of(1990, 1, 1) + random.nextInt(20000));
+			Zeitraum zeitraum = new Zeitraum(von, von.plusDays(random.nextInt(random.nextBoolean() ? 40 : 1000)));
+			List<Zeitraum> teile = zeitraum.streamByMonth().collect(Collectors.toList());
+			if (teile.size() > 1) {
+				assertEquals(teile, zeitraum.splitByMonth());
+			} else {
+				assertEquals(Arrays.asList(zeitraum), teile);
+				assertTrue(zeitraum.splitByMonth().isEmpty());
+			}
+		}
+	}
+
+	@Test
+	public void testParallel() {
+
+		Zeitraum zeitraum = zeitraum(LocalDate.of(1950, 3, 17), LocalDate.of(2070, 8, 3));
+		for (ZeitraumRaster raster : Arrays.asList(ZeitraumRaster.WOCHEN, ZeitraumRaster.MONATE, LOHNPERIODEN)) {
+			List<Zeitraum> teile = raster.stream(zeitraum).collect(Collectors.toList());
+			assertEquals(teile, raster.stream(zeitraum).parallel().collect(Collectors.toList()));
+			assertEquals(raster.count(zeitraum), teile.size());
+			Spliterator<Zeitraum> spliterator = raster.spliterator(zeitraum);
+			assertEquals(teile.size(), spliterator.getExactSizeIfKnown());
+			// lueckenlos und ohne Ueberschneidung
+			assertEquals(zeitraum.getVonDay(), teile.get(0).getVonDay());
+			assertEquals(zeitraum.getBisDay(), teile.get(teile.size() - 1).getBisDay());
+			for (int i = 1; i < teile.size(); i++) {
+				assertEquals(teile.get(i - 1).getBisDay().plusDays(1), teile.get(i).getVonDay());
+			}
+			assertEquals(zeitraum.getDuationInDays(), teile.stream().mapToInt(Zeitraum::getDuationInDays).sum());
+		}
+	}
+
+	private static Zeitraum zeitraum(LocalDate von, LocalDate bis) {
+		return new Zeitraum(Day.from(von), Day.from(bis));
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test-Klasse für {@link ZeitraumSet}, verglichen mit einem {@link BitSet} pro Tag.
+ */
+public class ZeitraumSetTest {
+
+	private static final int BASIS = EpochDays.of(2017, 1, 1);
+
+	@Test
+	public void testZusammenfassen() {
+
+		ZeitraumSet set = ZeitraumSet.of(
+			zeitraum(20, 25), zeitraum(0, 9), zeitraum(10, 12), zeitraum(5, 7), zeitraum(30, 30));
+		assertEquals(Arrays.asList(zeitraum(0, 12), zeitraum(20, 25), zeitraum(30, 30)), set.toList());
+		assertEquals(3, set.size());
+		assertEquals(20, set.getAnzahlTage());
+		assertEquals(zeitraum(20, 25), set.get(1));
+		assertTrue(set.contains(Day.ofEpochDay(BASIS + 12)));
+		assertFalse(set.contains(Day.ofEpochDay(BASIS + 13)));
+		assertTrue(set.contains(zeitraum(3, 12)));
+		assertFalse(set.contains(zeitraum(3, 13)));
+		assertEquals(ZeitraumSet.of(zeitraum(0, 12), zeitraum(30, 30), zeitraum(20, 25)), set);
+		assertEquals("[01.01. - 13.01.2017, 21.01. - 26.01.2017, 31.01. - 31.01.2017]", set.toString());
+		assertTrue(ZeitraumSet.empty().isEmpty());
+		assertEquals(ZeitraumSet.empty(), set.subtract(set));
+	}
+
+	@Test
+	public void testComplement() {
+
+		ZeitraumSet set = ZeitraumSet.of(zeitraum(5, 9), zeitraum(20, 25));
+		assertEquals(ZeitraumSet.of(zeitraum(0, 4), zeitraum(10, 19), zeitraum(26, 30)),
+			set.complement(zeitraum(0, 30)));
+		assertEquals(ZeitraumSet.of(zeitraum(10, 19)), set.complement(zeitraum(7, 22)));
+		assertEquals(ZeitraumSet.empty(), set.complement(zeitraum(21, 22)));
+	}
+
+	@Test
+	public void testGleichWieBitSet() {
+
+		Random random = new Random(23);
+		for (int i = 0; i < 2000; i++) {
+			List<Zeitraum> zeitraeumeA = zufaellig(random);
+			List<Zeitraum> zeitraeumeB = zufaellig(random);
+			ZeitraumSet a = ZeitraumSet.of(zeitraeumeA);
+			ZeitraumSet b = ZeitraumSet.of(zeitraeumeB);
+			BitSet bitsA = bits(zeitraeumeA);
+			BitSet bitsB = bits(zeitraeumeB);
+			assertEquals(bitsA, bits(a.toList()));
+			assertEquals(bitsA.cardinality(), a.getAnzahlTage());
+
+			BitSet union = (BitSet) bitsA.clone();
+			union.or(bitsB);
+			assertGleich(union, a.union(b));
+			BitSet intersect = (BitSet) bitsA.clone();
+			intersect.and(bitsB);
+			assertGleich(intersect, a.intersect(b));
+			BitSet subtract = (BitSet) bitsA.clone();
+			subtract.andNot(bitsB);
+			assertGleich(subtract, a.subtract(b));
+			BitSet complement = new BitSet();
+			complement.set(20, 181);
+			complement.andNot(bitsA);
+			assertGleich(complement, a.complement(zeitraum(20, 180)));
+
+			for (int tag = 0; tag < 220; tag += 3) {
+				assertEquals(bitsA.get(tag), a.contains(Day.ofEpochDay(BASIS + tag)));
+			}
+		}
+	}
+
+	private static void assertGleich(BitSet erwartet, ZeitraumSet set) {
+
+		assertEquals(erwartet, bits(set.toList()));
+		assertEquals(set, ZeitraumSet.of(set.toList()));
+		// zusammengefasst: zwischen zwei Zeitraeumen liegt mindestens ein Tag
+		for (int i = 1; i < set.size(); i++) {
+			assertTrue(set.get(i - 1).getBisEpochDay() + 1 < set.get(i).getVonEpochDay());
+		}
+	}
+
+	private static List<Zeitraum> zufaellig(Random random) {
+
+		List<Zeitraum> zeitraeume = new ArrayList<>();
+		int anzahl = random.nextInt(12);
+		for (int i = 0; i < anzahl; i++) {
+			int von = random.nextInt(200);
+			zeitraeume.add(zeitraum(von, von + random.nextInt(random.nextBoolean() ? 3 : 40)));
+		}
+		return zeitraeume;
+	}
+
+	private static BitSet bits(List<Zeitraum> zeitraeume) {
+
+		BitSet bits = new BitSet();
+		for (Zeitraum zeitraum : zeitraeume) {
+			bits.set(zeitraum.getVonEpochDay() - BASIS, zeitraum.getBisEpochDay() - BASIS + 1);
+		}
+		return bits;
+	}
+
+	private static Zeitraum zeitraum(int von, int bis) {
+		return new Zeitraum(Day.ofEpochDay(BASIS + von), Day.ofEpochDay(BASIS + bis));
+	}
+}
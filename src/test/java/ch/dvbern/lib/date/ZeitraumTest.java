@@ -15,18 +15,30 @@
 
 package ch.dvbern.lib.date;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
 
 import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
@@ -182,6 +194,47 @@ public class ZeitraumTest {
 
 	}
 
+	@Test
+	public void testSubtractOhneSeiteneffekt() {
+
+		Zeitraum jahr = new Zeitraum(Day.of(2017, 1, 1), Day.of(2017, 12, 31));
+		Zeitraum[] unterzeitraeume = {
+			new Zeitraum(Day.of(2017, 6, 1), Day.of(2017, 6, 30)),
+			new Zeitraum(Day.of(2017, 3, 1), Day.of(2017, 3, 31)),
+			new Zeitraum(Day.of(2016, 1, 1), Day.of(2016, 12, 31)),
+			new Zeitraum(Day.of(2017, 3, 15), Day.of(2017, 4, 2))
+		};
+		Zeitraum[] kopie = unterzeitraeume.clone();
+		List<Zeitraum> rest = jahr.subtract(unterzeitraeume);
+		assertArrayEquals(kopie, unterzeitraeume);
+		assertEquals(Arrays.asList(new Zeitraum(Day.of(2017, 1, 1), Day.of(2017, 2, 28)),
+			new Zeitraum(Day.of(2017, 4, 3), Day.of(2017, 5, 31)),
+			new Zeitraum(Day.of(2017, 7, 1), Day.of(2017, 12, 31))), rest);
+
+		// ein Unterzeitraum, der den Rest ganz ueberdeckt, laesst die schon abgetrennten Zeitraeume stehen
+		rest = jahr.subtract(new Zeitraum(Day.of(2017, 3, 1), Day.of(2017, 3, 31)),
+			new Zeitraum(Day.of(2017, 3, 15), Day.of(2018, 1, 31)));
+		assertEquals(Collections.singletonList(new Zeitraum(Day.of(2017, 1, 1), Day.of(2017, 2, 28))), rest);
+	}
+
+	@Test
+	public void testSubtractGleichWieZeitraumSet() {
+
+		Random random = new Random(24);
+		int basis = EpochDays.of(2017, 1, 1);
+		for (int i = 0; i < 2000; i++) {
+			Zeitraum zeitraum = new Zeitraum(Day.ofEpochDay(basis + random.nextInt(50)),
+				Day.ofEpochDay(basis + 50 + random.nextInt(100)));
+			List<Zeitraum> unterzeitraeume = new ArrayList<>();
+			for (int j = random.nextInt(15); j > 0; j--) {
+				Day von = Day.ofEpochDay(basis - 10 + random.nextInt(180));
+				unterzeitraeume.add(new Zeitraum(von, von.plusDays(random.nextInt(20))));
+			}
+			assertEquals(ZeitraumSet.of(zeitraum).subtract(ZeitraumSet.of(unterzeitraeume)).toList(),
+				zeitraum.subtract(unterzeitraeume));
+		}
+	}
+
 	/**
 	 * @throws ParseException
 	 */
@@ -320,4 +373,87 @@ public class ZeitraumTest {
 		assertEquals(0, z1.getDistanceFrom(d));
 	}
 
+	@Test
+	public void testContainsMitZeit() {
+		Date bis = DateHelper.newDate(0, 0, 17, 31, 1, 2008);
+		Zeitraum z = new Zeitraum(DateHelper.newDate(0, 30, 14, 1, 1, 2008), bis);
+		assertTrue(z.contains(bis));
+		assertTrue(z.contains(DateHelper.newDate(59, 59, 23, 31, 1, 2008)));
+		assertTrue(z.contains(DateHelper.newDate(0, 0, 8, 1, 1, 2008)));
+		assertFalse(z.contains(DateHelper.newDate(1, 2, 2008)));
+		assertFalse(z.contains(DateHelper.newDate(59, 59, 23, 31, 12, 2007)));
+		assertEquals(0, z.getDistanceFrom(bis));
+		assertEquals(0, z.getDistanceFrom(DateHelper.newDate(59, 59, 23, 31, 1, 2008)));
+		assertEquals(86400000 + 3600000, z.getDistanceFrom(DateHelper.newDate(0, 0, 1, 1, 2, 2008)));
+		assertEquals(-1000, z.getDistanceFrom(DateHelper.newDate(59, 59, 23, 31, 12, 2007)));
+	}
+
+	@Test
+	public void testZeitMitternacht() {
+		Zeitraum z = new Zeitraum(DateHelper.newDate(0, 30, 14, 1, 1, 2008),
+			DateHelper.newDate(59, 59, 23, 31, 1, 2008));
+		assertEquals(new Zeitraum(DateHelper.newDate(1, 1, 2008), DateHelper.newDate(31, 1, 2008)), z);
+		assertEquals(DateHelper.newDate(1, 1, 2008), z.getVon());
+		assertEquals(DateHelper.newDate(31, 1, 2008), z.getBis());
+		z.getVon().setTime(0);
+		assertEquals(DateHelper.newDate(1, 1, 2008), z.getVon());
+	}
+
+	@Test
+	public void testSerialisierung() throws IOException, ClassNotFoundException {
+
+		// dieselben Felder wie die fruehere Form mit Date und DateFormat pro Instanz
+		ObjectStreamClass osc = ObjectStreamClass.lookup(Zeitraum.class);
+		assertEquals(6911730704492703726L, osc.getSerialVersionUID());
+		ObjectStreamField[] fields = osc.getFields();
+		assertEquals(4, fields.length);
+		assertEquals(DateFormat.class, osc.getField("LONG_FORMAT").getType());
+		assertEquals(DateFormat.class, osc.getField("SHORT_FORMAT").getType());
+		assertEquals(Date.class, osc.getField("von").getType());
+		assertEquals(Date.class, osc.getField("bis").getType());
+
+		Zeitraum z1 = new Zeitraum(DateHelper.newDate(1, 2, 2017), DateHelper.newDate(31, 12, 2018));
+		Zeitraum z2 = new Zeitraum(DateHelper.newDate(1, 1, 1500), DateHelper.newDate(31, 12, 2008));
+		byte[] einer = serialisiere(z1);
+		byte[] zwei = serialisiere(z1, z2);
+		// die Formate werden pro Stream nur einmal geschrieben
+		assertTrue(zwei.length - einer.length < 200);
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(zwei))) {
+			assertEquals(z1, in.readObject());
+			Zeitraum gelesen = (Zeitraum) in.readObject();
+			assertEquals(z2, gelesen);
+			assertEquals(z2.getVon(), gelesen.getVon());
+			assertEquals(z2.hashCode(), gelesen.hashCode());
+		}
+	}
+
+	@Test
+	public void testRoundTripAndereZeitzonen() throws IOException, ClassNotFoundException {
+
+		TimeZone original = TimeZone.getDefault();
+		try {
+			for (String id : new String[] { "America/New_York", "America/Sao_Paulo", "Asia/Kolkata", "UTC" }) {
+				TimeZone.setDefault(TimeZone.getTimeZone(id));
+				for (int jahr = 1400; jahr < 2100; jahr += 37) {
+					Zeitraum z = new Zeitraum(Day.of(jahr, 1, 6), Day.of(jahr + 1, 1, 22));
+					assertEquals(id + ' ' + z, z, new Zeitraum(z.getVon(), z.getBis()));
+					try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialisiere(z)))) {
+						assertEquals(id + ' ' + z, z, in.readObject());
+					}
+				}
+			}
+		} finally {
+			TimeZone.setDefault(original);
+		}
+	}
+
+	private static byte[] serialisiere(Zeitraum... zeitraeume) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			for (Zeitraum zeitraum : zeitraeume) {
+				out.writeObject(zeitraum);
+			}
+		}
+		return bytes.toByteArray();
+	}
 }
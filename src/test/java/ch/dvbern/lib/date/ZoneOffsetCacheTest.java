@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Date;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ZoneOffsetCacheTest {
+
+	private static final String[] ZONEN = {
+		"Europe/Zurich", "America/Sao_Paulo", "Australia/Lord_Howe", "Pacific/Apia", "Asia/Kolkata", "UTC"
+	};
+
+	@Test
+	public void testGleichWieZoneRules() {
+
+		Random random = new Random(17);
+		for (String id : ZONEN) {
+			ZoneId zone = ZoneId.of(id);
+			ZoneOffsetCache cache = ZoneOffsetCache.of(zone);
+			assertSame(cache, ZoneOffsetCache.of(zone));
+			for (long millis : stichproben(random)) {
+				assertEquals(id + ' ' + millis, zone.getRules().getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds()
+					* 1000, cache.getOffset(millis));
+				assertEquals(id + ' ' + millis, DateConvertUtils.asLocalDate(new Date(millis), zone),
+					Instant.ofEpochMilli(millis).atZone(zone).toLocalDate());
+			}
+			// jede Umstellung und die Millisekunde davor
+			ZoneOffsetTransition transition = zone.getRules().nextTransition(Instant.MIN);
+			while (transition != null && transition.getInstant().getEpochSecond() < 7258118400L) {
+				long millis = transition.getInstant().toEpochMilli();
+				assertEquals(transition.getOffsetBefore().getTotalSeconds() * 1000, cache.getOffset(millis - 1));
+				assertEquals(transition.getOffsetAfter().getTotalSeconds() * 1000, cache.getOffset(millis));
+				transition = zone.getRules().nextTransition(transition.getInstant());
+			}
+		}
+	}
+
+	@Test
+	public void testGleichWieTimeZone() {
+
+		Random random = new Random(4711);
+		for (String id : ZONEN) {
+			TimeZone zone = TimeZone.getTimeZone(id);
+			ZoneOffsetCache cache = ZoneOffsetCache.of(zone);
+			Assert.assertTrue(id, cache.getTableSize() > 0);
+			for (long millis : stichproben(random)) {
+				assertEquals(id + ' ' + millis, zone.getOffset(millis), cache.getOffset(millis));
+				assertEquals(id + ' ' + millis, EpochDays.fromMillis(millis, zone), cache.toEpochDay(millis));
+			}
+		}
+	}
+
+	@Test
+	public void testEigeneTimeZone() {
+
+		SimpleTimeZone zone = new SimpleTimeZone(3600000, "Europe/Zurich", 0, 1, 0, 0, 6, 1, 0, 0);
+		ZoneOffsetCache cache = ZoneOffsetCache.of(zone);
+		assertEquals(0, cache.getTableSize());
+		for (long millis : stichproben(new Random(3))) {
+			assertEquals(zone.getOffset(millis), cache.getOffset(millis));
+		}
+	}
+
+	@Test
+	public void testOfDefault() {
+
+		TimeZone original = TimeZone.getDefault();
+		try {
+			for (String id : ZONEN) {
+				TimeZone.setDefault(TimeZone.getTimeZone(id));
+				ZoneOffsetCache cache = ZoneOffsetCache.ofDefault();
+				assertSame(cache, ZoneOffsetCache.ofDefault());
+				assertEquals(TimeZone.getDefault().getOffset(0), cache.getOffset(0));
+			}
+			TimeZone.setDefault(new SimpleTimeZone(7200000, "Europe/Zurich"));
+			assertEquals(7200000, ZoneOffsetCache.ofDefault().getOffset(0));
+		} finally {
+			TimeZone.setDefault(original);
+		}
+	}
+
+	private static long[] stichproben(Random random) {
+
+		long von = EpochDays.of(1500, 1, 1) * EpochDays.MILLIS_PER_DAY;
+		long bis = EpochDays.of(2400, 1, 1) * EpochDays.MILLIS_PER_DAY;
+		long[] result = new long[20000];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = von + (long) (random.nextDouble() * (bis - von));
+		}
+		return result;
+	}
+}
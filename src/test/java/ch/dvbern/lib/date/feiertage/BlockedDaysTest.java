@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date.feiertage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import ch.dvbern.lib.date.DateHelper;
+import ch.dvbern.lib.date.EpochDays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test-Klasse für {@link BlockedDays}.
+ */
+public class BlockedDaysTest {
+
+	@Test
+	public void testOfDates() {
+
+		List<Date> tage = Arrays.asList(
+			DateHelper.newDate(30, 0, 12, 12, 4, 2010),
+			DateHelper.newDate(9, 4, 2010),
+			DateHelper.newDate(12, 4, 2010));
+		BlockedDays sperrTage = BlockedDays.of(tage);
+
+		assertEquals(2, sperrTage.size());
+		assertArrayEquals(new int[] { EpochDays.of(2010, 4, 9), EpochDays.of(2010, 4, 12) }, sperrTage.toEpochDays());
+		assertTrue(sperrTage.contains(EpochDays.of(2010, 4, 12)));
+		assertFalse(sperrTage.contains(EpochDays.of(2010, 4, 10)));
+		assertTrue(sperrTage.contains(DateHelper.newDate(59, 59, 23, 9, 4, 2010)));
+		assertFalse(sperrTage.contains("9.4.2010"));
+		assertEquals(DateHelper.newDate(9, 4, 2010), sperrTage.get(0));
+		assertSame(sperrTage, BlockedDays.of(sperrTage));
+	}
+
+	@Test
+	public void testListVertrag() {
+
+		BlockedDays sperrTage = BlockedDays.ofEpochDays(EpochDays.of(2010, 4, 9), EpochDays.of(2010, 4, 12),
+			EpochDays.of(1500, 1, 16));
+		Date mitZeit = DateHelper.newDate(30, 0, 12, 12, 4, 2010);
+		assertTrue(sperrTage.contains(mitZeit));
+		assertEquals(2, sperrTage.indexOf(mitZeit));
+		assertEquals(2, sperrTage.lastIndexOf(mitZeit));
+		assertEquals(-1, sperrTage.indexOf(DateHelper.newDate(10, 4, 2010)));
+		assertEquals(-1, sperrTage.indexOf("9.4.2010"));
+		for (int i = 0; i < sperrTage.size(); i++) {
+			assertTrue(sperrTage.contains(sperrTage.get(i)));
+			assertEquals(i, sperrTage.indexOf(sperrTage.get(i)));
+		}
+
+		List<Date> liste = new ArrayList<>(sperrTage);
+		assertEquals(liste, sperrTage);
+		assertEquals(sperrTage, liste);
+		assertEquals(liste.hashCode(), sperrTage.hashCode());
+		assertEquals(sperrTage, BlockedDays.of(liste));
+		assertFalse(sperrTage.equals(BlockedDays.ofEpochDays(EpochDays.of(2010, 4, 9))));
+	}
+
+	@Test
+	public void testBitmapUndBinaereSuche() {
+
+		// nahe beieinander: Bitmap; weit auseinander: binaere Suche
+		int[] nahe = { 100, 5, 63, 64, 5, -1 };
+		int[] weit = { (int) LocalDate.of(1500, 1, 1).toEpochDay(), 0, (int) LocalDate.of(9999, 12, 31).toEpochDay() };
+		for (int[] tage : new int[][] { nahe, weit }) {
+			BlockedDays sperrTage = BlockedDays.ofEpochDays(tage);
+			int[] sortiert = Arrays.stream(tage).distinct().sorted().toArray();
+			assertArrayEquals(sortiert, sperrTage.toEpochDays());
+			for (int tag = sortiert[0] - 70; tag <= sortiert[0] + 200; tag++) {
+				assertEquals(String.valueOf(tag), Arrays.binarySearch(sortiert, tag) >= 0, sperrTage.contains(tag));
+			}
+			assertTrue(sperrTage.contains(sortiert[sortiert.length - 1]));
+			assertFalse(sperrTage.contains(Integer.MIN_VALUE));
+			assertFalse(sperrTage.contains(Integer.MAX_VALUE));
+		}
+	}
+
+	@Test
+	public void testNone() {
+
+		assertSame(BlockedDays.none(), BlockedDays.of(Collections.<Date>emptyList()));
+		assertTrue(BlockedDays.none().isEmpty());
+		assertFalse(BlockedDays.none().contains(0));
+	}
+
+	@Test
+	public void testMitFeiertageHelper() {
+
+		// Donnerstag vor Karfreitag 2010, Dienstag und Mittwoch nach Ostern gesperrt
+		BlockedDays sperrTage = BlockedDays.ofEpochDays(EpochDays.of(2010, 4, 6), EpochDays.of(2010, 4, 7));
+		Date result = FeiertageHelper.addWorkingDays(DateHelper.newDate(1, 4, 2010), 1, sperrTage);
+		assertEquals(DateHelper.newDate(8, 4, 2010), result);
+		assertEquals(DateHelper.newDate(1, 4, 2010),
+			FeiertageHelper.getPreviousWorkingDate(DateHelper.newDate(7, 4, 2010), 0, sperrTage));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testOfNull() {
+		BlockedDays.of(null);
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date.feiertage;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test-Klasse für {@link FeiertageCache}.
+ */
+public class FeiertageCacheTest {
+
+	@After
+	public void tearDown() {
+		FeiertageCache.setMaxEntries(Integer.MAX_VALUE);
+		FeiertageCache.setRecordHits(false);
+	}
+
+	@Test
+	public void testStatistik() {
+
+		FeiertageCache.clear();
+		FeiertageCache.setRecordHits(true);
+		assertEquals(0, FeiertageCache.getStatistics().getSize());
+		FeiertageHelper.getHolidays_CH(3001);
+		FeiertageHelper.getHolidays_CH(3001);
+		FeiertageHelper.getHolidays_CH(3001);
+		FeiertageCache.Statistics statistik = FeiertageCache.getStatistics();
+
+		assertEquals(1, statistik.getSize());
+		assertEquals(1, statistik.getMissCount());
+		assertEquals(2, statistik.getHitCount());
+		assertEquals(0, statistik.getEvictionCount());
+		assertTrue(statistik.getTotalLoadTimeNanos() > 0);
+	}
+
+	@Test
+	public void testTrefferNurWennEingeschaltet() {
+
+		FeiertageCache.clear();
+		assertFalse(FeiertageCache.isRecordHits());
+		FeiertageHelper.getHolidays_CH(3002);
+		FeiertageHelper.getHolidays_CH(3002);
+		assertEquals(1, FeiertageCache.getStatistics().getMissCount());
+		assertEquals(0, FeiertageCache.getStatistics().getHitCount());
+
+		FeiertageCache.setRecordHits(true);
+		FeiertageHelper.getHolidays_CH(3002);
+		assertEquals(1, FeiertageCache.getStatistics().getHitCount());
+	}
+
+	@Test
+	public void testMaxEntries() {
+
+		FeiertageCache.warmUp(3100, 3102);
+		FeiertageCache.setMaxEntries(10);
+		long evictions = FeiertageCache.getStatistics().getEvictionCount();
+		for (int year = 3200; year < 3300; year++) {
+			FeiertageHelper.isFeiertag_CH(1, 1, year);
+		}
+		// 10 Jahre plus die fixierten
+		assertTrue(FeiertageCache.getStatistics().getSize() <= 10 + 3);
+		assertTrue(FeiertageCache.getCalendarStatistics().getSize() <= 10 + 3);
+		assertTrue(FeiertageCache.getStatistics().getEvictionCount() - evictions >= 90);
+
+		// fixierte Jahre bleiben geladen
+		long misses = FeiertageCache.getStatistics().getMissCount();
+		FeiertageHelper.getHolidays_CH(3101);
+		assertEquals(misses, FeiertageCache.getStatistics().getMissCount());
+
+		// verdraengte Jahre werden korrekt neu berechnet
+		assertEquals(FeiertageHelper.getHoliday_CH(3200, FeiertagSchweiz.OSTERN),
+			FeiertageHelper.getHoliday_CH(3200, FeiertagSchweiz.OSTERN));
+		assertEquals(FeiertageHelper.getAnzahlArbeitstage(LocalDate.of(3200, 1, 1),
+			LocalDate.of(3299, 12, 31)),
+			WorkingDayCalendar.getInstance().getAnzahlArbeitstage(
+				(int) LocalDate.of(3200, 1, 1).toEpochDay(),
+				(int) LocalDate.of(3299, 12, 31).toEpochDay()));
+	}
+
+	@Test
+	public void testWarmUpAsync() throws Exception {
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			FeiertageCache.warmUpAsync(3400, 3410, executor).get(10, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdown();
+		}
+		long misses = FeiertageCache.getStatistics().getMissCount();
+		assertSame(FeiertageHelper.getHolidays_CH(3405), FeiertageHelper.getHolidays_CH(3405));
+		assertEquals(misses, FeiertageCache.getStatistics().getMissCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWarmUpAusserhalbBereich() {
+		FeiertageCache.warmUp(1499, 2000);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMaxEntriesNegativ() {
+		FeiertageCache.setMaxEntries(-1);
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date.feiertage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import ch.dvbern.lib.date.DateConvertUtils;
+import ch.dvbern.lib.date.Day;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test-Klasse für die {@link LocalDate}-Varianten von {@link FeiertageHelper}, verglichen mit den
+ * {@link Date}-Varianten.
+ */
+public class FeiertageHelperLocalDateTest {
+
+	@Test
+	public void testDayGleichWieLocalDate() {
+
+		Random random = new Random(2017);
+		LocalDate basis = LocalDate.of(2000, 1, 1);
+		for (int i = 0; i < 3000; i++) {
+			LocalDate tag = basis.plusDays(random.nextInt(10000));
+			LocalDate tag2 = tag.plusDays(random.nextInt(1000));
+			int anzahl = random.nextInt(50);
+			boolean jump = random.nextBoolean();
+			BlockedDays sperrTage = BlockedDays.ofEpochDays((int) tag.toEpochDay() + random.nextInt(30));
+			Day day = Day.from(tag);
+
+			assertEquals(FeiertageHelper.isFeiertag_CH(tag), FeiertageHelper.isFeiertag_CH(day));
+			assertEquals(FeiertageHelper.getAnzahlArbeitstage(tag, tag2),
+				FeiertageHelper.getAnzahlArbeitstage(day, Day.from(tag2)));
+			assertEquals(Day.from(FeiertageHelper.getNextWorkingDate(tag, anzahl, sperrTage)),
+				FeiertageHelper.getNextWorkingDate(day, anzahl, sperrTage));
+			assertEquals(Day.from(FeiertageHelper.getPreviousWorkingDate(tag, anzahl)),
+				FeiertageHelper.getPreviousWorkingDate(day, anzahl));
+			assertEquals(Day.from(FeiertageHelper.addWorkingDays(tag, jump, anzahl, sperrTage)),
+				FeiertageHelper.addWorkingDays(day, jump, anzahl, sperrTage));
+		}
+	}
+
+	@Test
+	public void testGleichWieDate() {
+
+		Random random = new Random(1291);
+		LocalDate basis = LocalDate.of(2000, 1, 1);
+		for (int i = 0; i < 3000; i++) {
+			LocalDate tag = basis.plusDays(random.nextInt(10000));
+			LocalDate tag2 = tag.plusDays(random.nextInt(1000));
+			int anzahl = random.nextInt(50);
+			boolean jump = random.nextBoolean();
+			List<Date> sperrListe = new ArrayList<>();
+			for (int s = random.nextInt(10); s > 0; s--) {
+				sperrListe.add(asDate(tag.plusDays(random.nextInt(80))));
+			}
+			BlockedDays sperrTage = BlockedDays.of(sperrListe);
+			Date date = asDate(tag);
+
+			assertEquals(FeiertageHelper.isFeiertag_CH(date), FeiertageHelper.isFeiertag_CH(tag));
+			assertEquals(FeiertageHelper.getAnzahlArbeitstage(date, asDate(tag2)),
+				FeiertageHelper.getAnzahlArbeitstage(tag, tag2));
+			assertEquals(asLocalDate(FeiertageHelper.getNextWorkingDate(date, anzahl)),
+				FeiertageHelper.getNextWorkingDate(tag, anzahl));
+			assertEquals(asLocalDate(FeiertageHelper.getNextWorkingDate(date, anzahl, sperrListe)),
+				FeiertageHelper.getNextWorkingDate(tag, anzahl, sperrTage));
+			assertEquals(asLocalDate(FeiertageHelper.getPreviousWorkingDate(date, anzahl)),
+				FeiertageHelper.getPreviousWorkingDate(tag, anzahl));
+			assertEquals(asLocalDate(FeiertageHelper.getPreviousWorkingDate(date, anzahl, sperrListe)),
+				FeiertageHelper.getPreviousWorkingDate(tag, anzahl, sperrTage));
+			assertEquals(asLocalDate(FeiertageHelper.addWorkingDays(date, anzahl)),
+				FeiertageHelper.addWorkingDays(tag, anzahl));
+			assertEquals(asLocalDate(FeiertageHelper.addWorkingDays(date, jump, anzahl)),
+				FeiertageHelper.addWorkingDays(tag, jump, anzahl));
+			assertEquals(asLocalDate(FeiertageHelper.addWorkingDays(date, jump, anzahl, sperrListe)),
+				FeiertageHelper.addWorkingDays(tag, jump, anzahl, sperrTage));
+		}
+	}
+
+	@Test
+	public void testFeiertagDaten() {
+
+		List<FeiertagCH> feiertage = FeiertageHelper.getFeiertage_CH(2009);
+		List<LocalDate> daten = FeiertageHelper.getFeiertagDaten_CH(2009);
+		assertEquals(feiertage.size(), daten.size());
+		for (int i = 0; i < daten.size(); i++) {
+			assertEquals(DateConvertUtils.asLocalDate(feiertage.get(i)), daten.get(i));
+		}
+		assertTrue(daten.contains(LocalDate.of(2009, 4, 10)));
+		assertTrue(FeiertageHelper.isFeiertag_CH(LocalDate.of(2009, 4, 10)));
+		assertFalse(FeiertageHelper.isFeiertag_CH(LocalDate.of(2009, 4, 9)));
+	}
+
+	@Test
+	public void testHolidays() {
+
+		for (int year = 1990; year <= 2030; year++) {
+			List<Holiday> holidays = FeiertageHelper.getHolidays_CH(year);
+			assertSame(holidays, FeiertageHelper.getHolidays_CH(year));
+			List<FeiertagCH> feiertage = FeiertageHelper.getFeiertage_CH(year);
+			assertEquals(feiertage.size(), holidays.size());
+			for (int i = 0; i < holidays.size(); i++) {
+				Holiday holiday = holidays.get(i);
+				assertEquals(feiertage.get(i).getFeiertag(), holiday.getFeiertag());
+				assertEquals(DateConvertUtils.asLocalDate(feiertage.get(i)), holiday.getDate());
+				assertEquals(holiday.getDate().toEpochDay(), holiday.getEpochDay());
+				assertSame(holiday, FeiertageHelper.getHoliday_CH(year, holiday.getFeiertag()));
+				assertSame(holiday, FeiertageHelper.getHoliday_CH(holiday.getDate()));
+				assertEquals(feiertage.get(i), FeiertageHelper.getFeiertag_CH(year, holiday.getFeiertag()));
+			}
+			int anzahl = 0;
+			for (LocalDate tag = LocalDate.of(year, 1, 1); tag.getYear() == year; tag = tag.plusDays(1)) {
+				if (FeiertageHelper.getHoliday_CH(tag) != null) {
+					anzahl++;
+				}
+			}
+			assertEquals(holidays.size(), anzahl);
+		}
+		assertNull(FeiertageHelper.getHoliday_CH(LocalDate.of(2009, 4, 11)));
+		assertEquals(new Holiday(FeiertagSchweiz.KARFREITAG, (int) LocalDate.of(2009, 4, 10).toEpochDay()),
+			FeiertageHelper.getHoliday_CH(LocalDate.of(2009, 4, 10)));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testHolidaysUnveraenderlich() {
+		FeiertageHelper.getHolidays_CH(2009).clear();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNull() {
+		FeiertageHelper.isFeiertag_CH((LocalDate) null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAusserhalbBereich() {
+		FeiertageHelper.addWorkingDays(LocalDate.of(1000000, 1, 1), 1);
+	}
+
+	private static Date asDate(LocalDate date) {
+		return DateConvertUtils.asUtilDate(date);
+	}
+
+	private static LocalDate asLocalDate(Date date) {
+		return DateConvertUtils.asLocalDate(date);
+	}
+}
@@ -19,8 +19,15 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import ch.dvbern.lib.date.DateHelper;
 import junit.framework.TestCase;
@@ -210,7 +217,7 @@ public class FeiertageHelperTest extends TestCase {
 		// IllegalArgumentException
 		try {
 			assertNull("IllegalArgumentException wanted", FeiertageHelper
-				.isFeiertag_CH(null));
+				.isFeiertag_CH((Date) null));
 		} catch (IllegalArgumentException e) {
 		}
 
@@ -280,7 +287,7 @@ public class FeiertageHelperTest extends TestCase {
 		// IllegalArgumentException
 		try {
 			assertNull("IllegalArgumentException wanted", FeiertageHelper
-				.getNextWorkingDate(null, 0));
+				.getNextWorkingDate((Date) null, 0));
 		} catch (IllegalArgumentException e) {
 			// do nothing. Exception Wanted.
 		}
@@ -392,7 +399,7 @@ public class FeiertageHelperTest extends TestCase {
 		// IllegalArgumentException
 		try {
 			assertNull("IllegalArgumentException wanted", FeiertageHelper
-				.getPreviousWorkingDate(null, 0));
+				.getPreviousWorkingDate((Date) null, 0));
 		} catch (IllegalArgumentException e) {
 			// do nothing. Exception Wanted.
 		}
@@ -477,7 +484,7 @@ public class FeiertageHelperTest extends TestCase {
 
 		try {
 			assertNull("null-argument. IllegalArgumentException wanted",
-				FeiertageHelper.getAnzahlArbeitstage(null, null));
+				FeiertageHelper.getAnzahlArbeitstage((Date) null, null));
 		} catch (IllegalArgumentException e) {
 			// do nothing. Exception Wanted.
 		}
@@ -537,7 +544,7 @@ public class FeiertageHelperTest extends TestCase {
 		// IllegalArgumentException
 		try {
 			assertNull("IllegalArgumentException wanted", FeiertageHelper
-				.getPreviousWorkingDate(null, 0));
+				.getPreviousWorkingDate((Date) null, 0));
 		} catch (IllegalArgumentException e) {
 			// do nothing. Exception Wanted.
 		}
@@ -549,6 +556,56 @@ public class FeiertageHelperTest extends TestCase {
 		}
 	}
 
+	/**
+	 * Ostern und die davon abgeleiteten Feiertage ueber den ganzen Bereich, verglichen mit dem Algorithmus nach
+	 * Meeus/Jones/Butcher. Die Daten muessen Mitternacht gem. GregorianCalendar sein.
+	 */
+	public void testBeweglicheFeiertageGanzerBereich() {
+
+		for (int year = 1500; year <= 9999; year++) {
+			int a = year % 19;
+			int b = year / 100;
+			int c = year % 100;
+			int g = (b - (b + 8) / 25 + 1) / 3;
+			int h = (19 * a + b - b / 4 - g + 15) % 30;
+			int l = (32 + 2 * (b % 4) + 2 * (c / 4) - h - c % 4) % 7;
+			int m = (a + 11 * h + 22 * l) / 451;
+			int month = (h + l - 7 * m + 114) / 31;
+			int day = (h + l - 7 * m + 114) % 31 + 1;
+
+			GregorianCalendar ostern = new GregorianCalendar(year, month - 1, day);
+			assertEquals(String.valueOf(year), ostern.getTime(),
+				FeiertageHelper.getFeiertag_CH(year, FeiertagSchweiz.OSTERN));
+			GregorianCalendar pfingstmontag = (GregorianCalendar) ostern.clone();
+			pfingstmontag.add(Calendar.DAY_OF_MONTH, 50);
+			assertEquals(String.valueOf(year), pfingstmontag.getTime(),
+				FeiertageHelper.getFeiertag_CH(year, FeiertagSchweiz.PFINGSTMONTAG));
+		}
+	}
+
+	/**
+	 * Vor 1583 rechnet GregorianCalendar julianisch: die Daten der Feiertage und die Abfrage per Datum muessen
+	 * dieselben Tage meinen wie die Abfrage per Tag, Monat und Jahr.
+	 */
+	public void testFeiertageVor1583() {
+
+		for (FeiertagCH feiertag : FeiertageHelper.getFeiertage_CH(1550)) {
+			assertTrue(feiertag.getFeiertag().name(), FeiertageHelper.isFeiertag_CH(feiertag));
+			assertEquals(feiertag, FeiertageHelper.getFeiertag_CH(1550, feiertag.getFeiertag()));
+		}
+		assertTrue(FeiertageHelper.isFeiertag_CH(FeiertageHelper.getFeiertag_CH(1550, FeiertagSchweiz.WEIHNACHTEN)));
+		assertTrue(FeiertageHelper.isFeiertag_CH(DateHelper.newDate(25, 12, 1550)));
+		for (int tag = 1; tag <= 31; tag++) {
+			assertEquals(String.valueOf(tag), FeiertageHelper.isFeiertag_CH(tag, 12, 1550),
+				FeiertageHelper.isFeiertag_CH(DateHelper.newDate(tag, 12, 1550)));
+		}
+		Date sperrTag = DateHelper.newDate(13, 9, 1550);
+		BlockedDays sperrTage = BlockedDays.of(Collections.singletonList(sperrTag));
+		assertEquals(sperrTag, sperrTage.get(0));
+		assertTrue(sperrTage.contains(sperrTag));
+		assertEquals(DateHelper.newDate(14, 9, 1550), FeiertageHelper.getNextWorkingDate(sperrTag, 0, sperrTage));
+	}
+
 	public void testPrintOutFeiertage() {
 
 		assertTrue("Keine Feiertage vorhanden", !FeiertageHelper
@@ -579,8 +636,12 @@ public class FeiertageHelperTest extends TestCase {
 		assertEquals(parseDate("7.4.2010"), FeiertageHelper.addWorkingDays(
 			parseDate("2.4.2010"), true, 1));
 
+		// Zeit bleibt erhalten
+		assertEquals(DateHelper.newDate(0, 30, 14, 8, 4, 2010), FeiertageHelper.addWorkingDays(
+			DateHelper.newDate(0, 30, 14, 1, 4, 2010), 3));
+
 		try {
-			FeiertageHelper.addWorkingDays(null, 0);
+			FeiertageHelper.addWorkingDays((Date) null, 0);
 		} catch (IllegalArgumentException x) {
 			// expected.
 		}
@@ -637,6 +698,49 @@ public class FeiertageHelperTest extends TestCase {
 			+ (end.getTime() - start.getTime()));
 	}
 
+	/**
+	 * Viele Threads greifen gleichzeitig zum ersten Mal auf dieselben Jahre zu. Alle muessen dieselbe (einmal
+	 * publizierte) Instanz sehen und korrekte Werte erhalten.
+	 */
+	public void testConcurrentFirstAccess() throws Exception {
+		final int threads = 32;
+		final int vonJahr = 7000;
+		final int anzahlJahre = 500;
+		final CyclicBarrier start = new CyclicBarrier(threads);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<FeiertagCH[]>> futures = new ArrayList<Future<FeiertagCH[]>>();
+			for (int t = 0; t < threads; t++) {
+				final int offset = t;
+				futures.add(executor.submit(new Callable<FeiertagCH[]>() {
+					@Override
+					public FeiertagCH[] call() throws Exception {
+						start.await();
+						FeiertagCH[] result = new FeiertagCH[anzahlJahre];
+						// jeder Thread beginnt bei einem anderen Jahr, damit sich die Erstzugriffe ueberschneiden
+						for (int i = 0; i < anzahlJahre; i++) {
+							int index = (i + offset * 7) % anzahlJahre;
+							int year = vonJahr + index;
+							assertTrue(FeiertageHelper.isFeiertag_CH(1, 1, year));
+							result[index] = FeiertageHelper.getFeiertag_CH(year, FeiertagSchweiz.WEIHNACHTEN);
+						}
+						return result;
+					}
+				}));
+			}
+			FeiertagCH[] first = futures.get(0).get();
+			for (Future<FeiertagCH[]> future : futures) {
+				FeiertagCH[] result = future.get();
+				for (int i = 0; i < anzahlJahre; i++) {
+					assertSame(first[i], result[i]);
+					assertEquals(DateHelper.newDate(25, 12, vonJahr + i), result[i]);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	private Date parseDate(String aDateString) {
 
 		SimpleDateFormat formatter = new SimpleDateFormat("dd.MM.yyyy");
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2017. DV Bern AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * limitations under the License.
+ */
+
+package ch.dvbern.lib.date.feiertage;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import ch.dvbern.lib.date.DateConvertUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test-Klasse für {@link WorkingDayCalendar}.
+ */
+public class WorkingDayCalendarTest {
+
+	private final WorkingDayCalendar calendar = WorkingDayCalendar.getInstance();
+
+	@Test
+	public void testIsFeiertagGleichWieFeiertagListe() {
+
+		for (int year = 1900; year <= 2100; year++) {
+			Set<LocalDate> feiertage = new HashSet<>();
+			for (FeiertagCH feiertag : FeiertageHelper.getFeiertage_CH(year)) {
+				feiertage.add(DateConvertUtils.asLocalDate(feiertag));
+			}
+			for (LocalDate tag = LocalDate.of(year, 1, 1); tag.getYear() == year; tag = tag.plusDays(1)) {
+				boolean erwartet = tag.getDayOfWeek() == DayOfWeek.SATURDAY
+					|| tag.getDayOfWeek() == DayOfWeek.SUNDAY
+					|| feiertage.contains(tag);
+				assertEquals(tag.toString(), erwartet, calendar.isFeiertag((int) tag.toEpochDay()));
+				assertEquals(tag.toString(), !erwartet, calendar.isArbeitstag((int) tag.toEpochDay()));
+			}
+		}
+	}
+
+	@Test
+	public void testGrenzen() {
+
+		assertEquals(LocalDate.of(1500, 1, 1).toEpochDay(), calendar.getMinEpochDay());
+		assertEquals(LocalDate.of(9999, 12, 31).toEpochDay(), calendar.getMaxEpochDay());
+		assertTrue(calendar.isFeiertag(calendar.getMinEpochDay()));
+		// 31.12.9999 ist ein Freitag
+		assertFalse(calendar.isFeiertag(calendar.getMaxEpochDay()));
+	}
+
+	@Test
+	public void testAnzahlArbeitstage() {
+
+		int von = (int) LocalDate.of(1990, 1, 1).toEpochDay();
+		int bis = (int) LocalDate.of(2030, 12, 31).toEpochDay();
+		// kumulierte Anzahl gem. Einzelabfrage
+		int[] kumuliert = new int[bis - von + 2];
+		for (int tag = von; tag <= bis; tag++) {
+			kumuliert[tag - von + 1] = kumuliert[tag - von] + (calendar.isArbeitstag(tag) ? 1 : 0);
+		}
+		Random random = new Random(4711);
+		for (int i = 0; i < 20000; i++) {
+			int a = von + random.nextInt(bis - von + 1);
+			int b = a + random.nextInt(bis - a + 1);
+			assertEquals(kumuliert[b - von + 1] - kumuliert[a - von],
+				calendar.getAnzahlArbeitstage(a, b));
+		}
+		// Karfreitag/Ostern 2009
+		assertEquals(4, calendar.getAnzahlArbeitstage((int) LocalDate.of(2009, 4, 6).toEpochDay(),
+			(int) LocalDate.of(2009, 4, 10).toEpochDay()));
+	}
+
+	@Test
+	public void testAnzahlArbeitstageGanzerBereich() {
+
+		int erwartet = 0;
+		for (int tag = calendar.getMinEpochDay(); tag <= calendar.getMaxEpochDay(); tag++) {
+			if (calendar.isArbeitstag(tag)) {
+				erwartet++;
+			}
+		}
+		assertEquals(erwartet, calendar.getAnzahlArbeitstage(calendar.getMinEpochDay(), calendar.getMaxEpochDay()));
+	}
+
+	@Test
+	public void testAddWorkingDaysMitSperrtagen() {
+
+		Random random = new Random(42);
+		int basis = (int) LocalDate.of(2009, 1, 1).toEpochDay();
+		for (int i = 0; i < 2000; i++) {
+			int[] tage = new int[random.nextInt(100)];
+			Set<Integer> sperrSet = new HashSet<>();
+			for (int s = 0; s < tage.length; s++) {
+				tage[s] = basis + random.nextInt(400);
+				sperrSet.add(tage[s]);
+			}
+			BlockedDays sperrTage = BlockedDays.ofEpochDays(tage);
+
+			int tag = basis + random.nextInt(300);
+			int anzahl = random.nextInt(300);
+			boolean jump = random.nextBoolean();
+
+			// Referenz: Tag fuer Tag wie die urspruengliche Implementation
+			int erwartet = jump ? naechsterFreierTag(tag, sperrSet) : tag;
+			for (int n = 0; n < anzahl; n++) {
+				erwartet = naechsterFreierTag(erwartet + 1, sperrSet);
+			}
+			assertEquals(erwartet, calendar.addWorkingDays(tag, jump, anzahl, sperrTage));
+			assertEquals(naechsterFreierTag(tag, sperrSet), calendar.getNextWorkingDay(tag, sperrTage));
+
+			int vorheriger = tag;
+			while (calendar.isFeiertag(vorheriger) || sperrSet.contains(vorheriger)) {
+				vorheriger--;
+			}
+			assertEquals(vorheriger, calendar.getPreviousWorkingDay(tag, sperrTage));
+		}
+	}
+
+	@Test
+	public void testAddWorkingDaysOhneSperrtage() {
+
+		// Donnerstag vor Karfreitag 2010 + 3 Arbeitstage = Donnerstag nach Ostern
+		int tag = (int) LocalDate.of(2010, 4, 1).toEpochDay();
+		assertEquals(LocalDate.of(2010, 4, 8).toEpochDay(), calendar.addWorkingDays(tag, true, 3));
+		// Karfreitag 2010
+		tag = (int) LocalDate.of(2010, 4, 2).toEpochDay();
+		assertEquals(LocalDate.of(2010, 4, 6).toEpochDay(), calendar.addWorkingDays(tag, false, 1));
+		assertEquals(LocalDate.of(2010, 4, 7).toEpochDay(), calendar.addWorkingDays(tag, true, 1));
+		assertEquals(tag, calendar.addWorkingDays(tag, false, 0));
+		assertEquals(LocalDate.of(2010, 4, 1).toEpochDay(), calendar.getPreviousWorkingDay(tag));
+	}
+
+	@Test
+	public void testBulk() {
+
+		Random random = new Random(815);
+		int basis = (int) LocalDate.of(1950, 1, 1).toEpochDay();
+		// klein (im aufrufenden Thread) und gross (Fork/Join, nicht auf 64 ausgerichtet)
+		for (int anzahl : new int[] { 0, 1, 63, 64, 1000, 100003 }) {
+			int[] von = new int[anzahl];
+			int[] bis = new int[anzahl];
+			for (int i = 0; i < anzahl; i++) {
+				von[i] = basis + random.nextInt(40000);
+				bis[i] = von[i] + random.nextInt(1000);
+			}
+			long[] bits = new long[(anzahl + 63) / 64 + 1];
+			Arrays.fill(bits, -1L);
+			calendar.classify(von, bits);
+			int[] out = new int[anzahl];
+			calendar.countWorkingDays(von, bis, out);
+
+			for (int i = 0; i < anzahl; i++) {
+				assertEquals(calendar.isFeiertag(von[i]), (bits[i >>> 6] & (1L << i)) != 0);
+				assertEquals(calendar.getAnzahlArbeitstage(von[i], bis[i]), out[i]);
+			}
+			if ((anzahl & 63) != 0) {
+				assertEquals(0, bits[anzahl >>> 6] >>> (anzahl & 63));
+			}
+			// Worte nach dem Resultat bleiben unveraendert
+			assertEquals(-1L, bits[bits.length - 1]);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testClassifyZuKurz() {
+		calendar.classify(new int[65], new long[1]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCountWorkingDaysBisVorVon() {
+		calendar.countWorkingDays(new int[] { 1 }, new int[] { 0 }, new int[1]);
+	}
+
+	private int naechsterFreierTag(int tag, Set<Integer> sperrTage) {
+
+		int result = tag;
+		while (calendar.isFeiertag(result) || sperrTage.contains(result)) {
+			result++;
+		}
+		return result;
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testVorMinimum() {
+		calendar.isFeiertag(calendar.getMinEpochDay() - 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNachMaximum() {
+		calendar.isFeiertag(calendar.getMaxEpochDay() + 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAddWorkingDaysNachMaximum() {
+		calendar.addWorkingDays(calendar.getMaxEpochDay() - 10, true, 20);
+	}
+}